@@ -0,0 +1,109 @@
+package na.library.grpcserver.client;
+
+import io.grpc.*;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client interceptor counting how calls to hedged methods were answered: by the original attempt, or by a hedge.
+ * <p>
+ * Only methods with a hedging policy are tracked, so retries of other methods never show up as hedge wins.
+ * Every attempt of a tracked call gets a stream tracer sharing one {@link CallAttempts}. The channel commits to
+ * the first attempt that receives response headers, so that attempt is the winner; a winner with a non-zero index
+ * is a hedge that beat the original request.
+ */
+public final class HedgingStats implements ClientInterceptor {
+
+    private static final CallOptions.Key<CallAttempts> ATTEMPTS = CallOptions.Key.create("weather-call-attempts");
+
+    private final Set<String> hedgedMethods;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder callsWithExtraAttempts = new LongAdder();
+    private final LongAdder extraAttemptWins = new LongAdder();
+
+    private final ClientStreamTracer.Factory tracerFactory = new ClientStreamTracer.Factory() {
+        @Override
+        public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+            CallAttempts attempts = info.getCallOptions().getOption(ATTEMPTS);
+            if (attempts == null) {
+                return new ClientStreamTracer() {
+                };
+            }
+            int attempt = attempts.started.getAndIncrement();
+            return new ClientStreamTracer() {
+                @Override
+                public void inboundHeaders() {
+                    attempts.winner.compareAndSet(-1, attempt);
+                }
+            };
+        }
+    };
+
+    /**
+     * @param hedgedMethods full names of the methods whose service config has a hedging policy
+     */
+    public HedgingStats(Set<String> hedgedMethods) {
+        this.hedgedMethods = Set.copyOf(hedgedMethods);
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+            MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+
+        if (!hedgedMethods.contains(method.getFullMethodName())) {
+            return next.newCall(method, callOptions);
+        }
+        CallAttempts attempts = new CallAttempts();
+        ClientCall<ReqT, RespT> call = next.newCall(method,
+                callOptions.withOption(ATTEMPTS, attempts).withStreamTracerFactory(tracerFactory));
+
+        return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(call) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        record(attempts);
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    private void record(CallAttempts attempts) {
+        calls.increment();
+        if (attempts.started.get() > 1) {
+            callsWithExtraAttempts.increment();
+        }
+        if (attempts.winner.get() > 0) {
+            extraAttemptWins.increment();
+        }
+    }
+
+    public Snapshot snapshot() {
+        // Read each counter once so the rate matches the counts it is reported with
+        long hedgedCalls = callsWithExtraAttempts.sum();
+        long hedgeWins = extraAttemptWins.sum();
+        double hedgeWinRate = hedgedCalls == 0 ? 0 : (double) hedgeWins / hedgedCalls;
+        return new Snapshot(calls.sum(), hedgedCalls, hedgeWins, hedgeWinRate);
+    }
+
+    /**
+     * A component rather than a derived method, so the JSON of {@code /api/weather/client/hedging} includes it.
+     *
+     * @param calls        calls to methods with a hedging policy
+     * @param hedgedCalls  of those, calls that sent more than one attempt
+     * @param hedgeWins    of those, calls answered by an attempt other than the first
+     * @param hedgeWinRate share of hedged calls that the hedge won
+     */
+    public record Snapshot(long calls, long hedgedCalls, long hedgeWins, double hedgeWinRate) {
+    }
+
+    private static final class CallAttempts {
+        private final AtomicInteger started = new AtomicInteger();
+        private final AtomicInteger winner = new AtomicInteger(-1);
+    }
+}
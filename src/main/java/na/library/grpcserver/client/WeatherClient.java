@@ -3,9 +3,10 @@ package na.library.grpcserver.client;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 import io.grpc.stub.StreamObserver;
-import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import na.library.grpcserver.config.WeatherClientProperties;
 import na.library.grpcweather.proto.*;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -16,23 +17,57 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 @Component
+@ConditionalOnProperty(prefix = "weather.rest-bridge", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class WeatherClient {
 
-    private ManagedChannel channel;
+    private final WeatherClientProperties properties;
+    private final HedgingStats hedgingStats;
+    private volatile ManagedChannel channel;
     private WeatherServiceGrpc.WeatherServiceBlockingStub blockingStub;
     private WeatherServiceGrpc.WeatherServiceStub asyncStub;
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    @PostConstruct
-    public void init() {
-        // Create a channel to the server
-        channel = ManagedChannelBuilder.forAddress("localhost", 9091)
-                .usePlaintext()
-                .build();
+    public WeatherClient(WeatherClientProperties properties) {
+        this.properties = properties;
+        this.hedgingStats = new HedgingStats(WeatherServiceConfig.hedgedMethods(properties));
+    }
+
+    // The channel is created on first use rather than at startup, keeping it off the context refresh path
+    private void ensureChannel() {
+        if (channel != null) {
+            return;
+        }
+        synchronized (this) {
+            if (channel == null) {
+                // Deadlines, retries and hedging come from the service config built from weather.client.*
+                ManagedChannel created = ManagedChannelBuilder.forTarget(properties.target())
+                        .usePlaintext()
+                        .defaultServiceConfig(WeatherServiceConfig.from(properties))
+                        .enableRetry()
+                        .intercept(hedgingStats)
+                        .build();
+
+                // Create stubs
+                blockingStub = WeatherServiceGrpc.newBlockingStub(created);
+                asyncStub = WeatherServiceGrpc.newStub(created);
+                channel = created;
+            }
+        }
+    }
+
+    private WeatherServiceGrpc.WeatherServiceBlockingStub blockingStub() {
+        ensureChannel();
+        return blockingStub;
+    }
+
+    private WeatherServiceGrpc.WeatherServiceStub asyncStub() {
+        ensureChannel();
+        return asyncStub;
+    }
 
-        // Create stubs
-        blockingStub = WeatherServiceGrpc.newBlockingStub(channel);
-        asyncStub = WeatherServiceGrpc.newStub(channel);
+    // How often hedged (or retried) attempts answered a call before the original one
+    public HedgingStats.Snapshot getHedgingStats() {
+        return hedgingStats.snapshot();
     }
 
     // Unary RPC demonstration
@@ -42,7 +77,7 @@ public class WeatherClient {
                 .setCountry(country)
                 .build();
 
-        return blockingStub.getCurrentWeather(request);
+        return blockingStub().getCurrentWeather(request);
     }
 
     // Server Streaming RPC demonstration
@@ -53,7 +88,7 @@ public class WeatherClient {
                 .build();
 
         List<WeatherResponse> responses = new ArrayList<>();
-        blockingStub.getWeatherForecast(request).forEachRemaining(responses::add);
+        blockingStub().getWeatherForecast(request).forEachRemaining(responses::add);
 
         return responses;
     }
@@ -81,7 +116,7 @@ public class WeatherClient {
             }
         };
 
-        StreamObserver<WeatherData> requestObserver = asyncStub.submitWeatherData(responseObserver);
+        StreamObserver<WeatherData> requestObserver = asyncStub().submitWeatherData(responseObserver);
 
         try {
             for (WeatherData data : weatherDataList) {
@@ -102,6 +137,19 @@ public class WeatherClient {
         return response[0];
     }
 
+    // Client Streaming RPC with a batch id - resubmitting the same list after a failure is deduplicated by the server
+    public SubmitResponse submitWeatherData(String batchId, List<WeatherData> weatherDataList) throws InterruptedException {
+        List<WeatherData> batch = new ArrayList<>(weatherDataList.size());
+        for (int i = 0; i < weatherDataList.size(); i++) {
+            batch.add(weatherDataList.get(i).toBuilder()
+                    .setBatchId(batchId)
+                    .setSequence(i)
+                    .build());
+        }
+
+        return submitWeatherData(batch);
+    }
+
     // Bidirectional Streaming RPC demonstration
     public List<WeatherAlert> monitorWeather(List<LocationRequest> locations) throws InterruptedException {
         final CountDownLatch finishLatch = new CountDownLatch(1);
@@ -127,7 +175,7 @@ public class WeatherClient {
             }
         };
 
-        StreamObserver<LocationRequest> requestObserver = asyncStub.monitorWeather(responseObserver);
+        StreamObserver<LocationRequest> requestObserver = asyncStub().monitorWeather(responseObserver);
 
         try {
             // Send all location requests
@@ -162,6 +210,8 @@ public class WeatherClient {
 
     @PreDestroy
     public void shutdown() throws InterruptedException {
-        channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+        if (channel != null) {
+            channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+        }
     }
 }
\ No newline at end of file
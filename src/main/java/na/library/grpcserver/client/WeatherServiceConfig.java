@@ -0,0 +1,82 @@
+package na.library.grpcserver.client;
+
+import na.library.grpcserver.config.WeatherClientProperties;
+import na.library.grpcweather.proto.WeatherServiceGrpc;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds the gRPC service config (the JSON structure, as maps) that carries the client's deadlines,
+ * retry, hedging and throttling policies. Numbers must be doubles and durations strings like "0.05s",
+ * as the channel parses it like JSON.
+ */
+final class WeatherServiceConfig {
+
+    private WeatherServiceConfig() {
+    }
+
+    static Map<String, Object> from(WeatherClientProperties properties) {
+        WeatherClientProperties.Retry retry = properties.retry();
+        WeatherClientProperties.Hedging hedging = properties.hedging();
+
+        Map<String, Object> currentWeather = methodConfig("GetCurrentWeather", properties.timeouts().currentWeather());
+        if (hedging.enabled()) {
+            currentWeather.put("hedgingPolicy", Map.of(
+                    "maxAttempts", (double) hedging.maxAttempts(),
+                    "hedgingDelay", duration(hedging.delay()),
+                    "nonFatalStatusCodes", hedging.nonFatalStatusCodes()));
+        } else if (retry.enabled()) {
+            currentWeather.put("retryPolicy", retryPolicy(retry));
+        }
+
+        Map<String, Object> forecast = methodConfig("GetWeatherForecast", properties.timeouts().forecast());
+        if (retry.enabled()) {
+            forecast.put("retryPolicy", retryPolicy(retry));
+        }
+
+        Map<String, Object> submit = methodConfig("SubmitWeatherData", properties.timeouts().submit());
+
+        Map<String, Object> config = new HashMap<>();
+        config.put("methodConfig", List.of(currentWeather, forecast, submit));
+        if (retry.enabled() || hedging.enabled()) {
+            config.put("retryThrottling", Map.of(
+                    "maxTokens", (double) properties.retryBudget().maxTokens(),
+                    "tokenRatio", properties.retryBudget().tokenRatio()));
+        }
+        return config;
+    }
+
+    /**
+     * Full names of the methods that {@link #from} gives a hedging policy.
+     */
+    static Set<String> hedgedMethods(WeatherClientProperties properties) {
+        return properties.hedging().enabled()
+                ? Set.of(WeatherServiceGrpc.getGetCurrentWeatherMethod().getFullMethodName())
+                : Set.of();
+    }
+
+    private static Map<String, Object> methodConfig(String method, Duration timeout) {
+        Map<String, Object> methodConfig = new HashMap<>();
+        methodConfig.put("name", List.of(Map.of("service", WeatherServiceGrpc.SERVICE_NAME, "method", method)));
+        methodConfig.put("timeout", duration(timeout));
+        return methodConfig;
+    }
+
+    private static Map<String, Object> retryPolicy(WeatherClientProperties.Retry retry) {
+        return Map.of(
+                "maxAttempts", (double) retry.maxAttempts(),
+                "initialBackoff", duration(retry.initialBackoff()),
+                "maxBackoff", duration(retry.maxBackoff()),
+                "backoffMultiplier", retry.backoffMultiplier(),
+                "retryableStatusCodes", retry.retryableStatusCodes());
+    }
+
+    private static String duration(Duration duration) {
+        return BigDecimal.valueOf(duration.toNanos(), 9).toPlainString() + "s";
+    }
+}
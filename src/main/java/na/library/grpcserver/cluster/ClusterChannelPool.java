@@ -0,0 +1,60 @@
+package na.library.grpcserver.cluster;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import na.library.grpcserver.config.ClusterProperties.Member;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Internal channels to the other members, created on first use and reused for every forwarded call.
+ * Each member gets a few HTTP/2 connections used round-robin, so one connection's stream limit or
+ * event loop does not cap forwarding throughput.
+ */
+final class ClusterChannelPool {
+
+    private final int channelsPerMember;
+    private final Map<String, MemberChannels> channels = new ConcurrentHashMap<>();
+
+    ClusterChannelPool(int channelsPerMember) {
+        this.channelsPerMember = channelsPerMember;
+    }
+
+    ManagedChannel channelFor(Member member) {
+        return channels.computeIfAbsent(member.id(), id -> new MemberChannels(member, channelsPerMember)).next();
+    }
+
+    void shutdown() throws InterruptedException {
+        for (MemberChannels memberChannels : channels.values()) {
+            for (ManagedChannel channel : memberChannels.channels) {
+                channel.shutdown();
+            }
+        }
+        for (MemberChannels memberChannels : channels.values()) {
+            for (ManagedChannel channel : memberChannels.channels) {
+                channel.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private static final class MemberChannels {
+        private final ManagedChannel[] channels;
+        private final AtomicInteger next = new AtomicInteger();
+
+        MemberChannels(Member member, int count) {
+            channels = new ManagedChannel[count];
+            for (int i = 0; i < count; i++) {
+                channels[i] = ManagedChannelBuilder.forAddress(member.host(), member.port())
+                        .usePlaintext()
+                        .build();
+            }
+        }
+
+        ManagedChannel next() {
+            return channels[Math.floorMod(next.getAndIncrement(), channels.length)];
+        }
+    }
+}
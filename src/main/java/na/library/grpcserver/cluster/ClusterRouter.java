@@ -0,0 +1,135 @@
+package na.library.grpcserver.cluster;
+
+import io.grpc.Context;
+import io.grpc.Metadata;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.ServerCallStreamObserver;
+import jakarta.annotation.PreDestroy;
+import na.library.grpcserver.config.ClusterProperties;
+import na.library.grpcserver.config.ClusterProperties.Member;
+import na.library.grpcweather.proto.SubmitResponse;
+import na.library.grpcweather.proto.WeatherAlert;
+import na.library.grpcweather.proto.WeatherServiceGrpc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Decides which cluster member owns a location and hands out stubs for forwarding to it.
+ * <p>
+ * Forwarded calls carry the {@link #FORWARDED_HEADER}; the receiving node always serves those locally,
+ * so a call is forwarded at most once even if two nodes briefly disagree on membership. The header is only
+ * honored when it names another configured member and the call comes from that member's host
+ * ({@link #isTrustedForwarder}); otherwise a client could make a non-owner store a location.
+ * With cluster mode disabled every location is local and nothing is forwarded.
+ */
+@Component
+public class ClusterRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterRouter.class);
+
+    public static final Metadata.Key<String> FORWARDED_HEADER =
+            Metadata.Key.of("x-weather-forwarded-by", Metadata.ASCII_STRING_MARSHALLER);
+    /** Response header with the owner's host:port, so smart clients can connect to it directly. */
+    public static final Metadata.Key<String> OWNER_HEADER =
+            Metadata.Key.of("x-weather-owner", Metadata.ASCII_STRING_MARSHALLER);
+
+    static final Context.Key<Boolean> FORWARDED = Context.key("weather-forwarded");
+
+    private final boolean enabled;
+    private final Member self;
+    private final Map<String, Member> membersById;
+    private final ConsistentHashRing ring;
+    private final ClusterChannelPool channelPool;
+    private final Metadata forwardedHeaders = new Metadata();
+
+    public ClusterRouter(ClusterProperties properties) {
+        this.enabled = properties.enabled();
+        this.self = properties.members().stream()
+                .filter(member -> member.id().equals(properties.nodeId()))
+                .findFirst()
+                .orElse(null);
+        this.membersById = properties.members().stream()
+                .collect(Collectors.toMap(Member::id, Function.identity(), (first, second) -> first));
+        this.ring = new ConsistentHashRing(properties.members(), properties.virtualNodes());
+        this.channelPool = new ClusterChannelPool(properties.channelsPerMember());
+        if (enabled) {
+            forwardedHeaders.put(FORWARDED_HEADER, self.id());
+            logger.info("Cluster mode enabled: node {} of {} members", self.id(), properties.members().size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Member ownerOf(String location) {
+        return ring.ownerOf(location);
+    }
+
+    /**
+     * @return the member to forward to, or empty if this node should serve the location itself
+     */
+    public Optional<Member> remoteOwner(String location) {
+        if (!enabled || Boolean.TRUE.equals(FORWARDED.get())) {
+            return Optional.empty();
+        }
+        Member owner = ring.ownerOf(location);
+        return owner.id().equals(self.id()) ? Optional.empty() : Optional.of(owner);
+    }
+
+    /**
+     * @return true if a call with {@code x-weather-forwarded-by: memberId} from {@code peer} really comes from
+     * another member of the cluster
+     */
+    boolean isTrustedForwarder(String memberId, SocketAddress peer) {
+        Member member = membersById.get(memberId);
+        if (member == null || member.id().equals(self.id()) || !(peer instanceof InetSocketAddress address)) {
+            return false;
+        }
+        try {
+            // Resolved per forwarded call; the JVM's DNS cache keeps this cheap
+            for (InetAddress memberAddress : InetAddress.getAllByName(member.host())) {
+                if (memberAddress.equals(address.getAddress())) {
+                    return true;
+                }
+            }
+        } catch (UnknownHostException e) {
+            logger.warn("Cannot resolve cluster member {} at {}", member.id(), member.host());
+        }
+        return false;
+    }
+
+    public WeatherServiceGrpc.WeatherServiceStub forwardingStub(Member owner) {
+        return WeatherServiceGrpc.newStub(channelPool.channelFor(owner))
+                .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(forwardedHeaders));
+    }
+
+    /**
+     * Must be called from the service method, as the forwarder takes over the call's inbound flow control.
+     */
+    public SubmitForwarder newSubmitForwarder(ServerCallStreamObserver<SubmitResponse> responseObserver) {
+        return new SubmitForwarder(this, responseObserver);
+    }
+
+    /**
+     * Must be called from the service method, as the forwarder takes over the call's inbound flow control.
+     */
+    public MonitorForwarder newMonitorForwarder(ServerCallStreamObserver<WeatherAlert> responseObserver) {
+        return new MonitorForwarder(this, responseObserver);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        channelPool.shutdown();
+    }
+}
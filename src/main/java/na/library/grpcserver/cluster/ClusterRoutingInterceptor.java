@@ -0,0 +1,75 @@
+package na.library.grpcserver.cluster;
+
+import io.grpc.*;
+import na.library.grpcweather.proto.LocationRequest;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Marks calls forwarded by another member (so they are served locally) and adds the owner of the requested
+ * location to the response headers, letting smart clients connect straight to the owner next time.
+ * A forwarded-by header that does not come from a member is stripped and the call is routed like any other.
+ */
+@GrpcGlobalServerInterceptor
+public class ClusterRoutingInterceptor implements ServerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterRoutingInterceptor.class);
+
+    private final ClusterRouter router;
+
+    public ClusterRoutingInterceptor(ClusterRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+            ServerCall<ReqT, RespT> call,
+            Metadata headers,
+            ServerCallHandler<ReqT, RespT> next) {
+
+        if (!router.isEnabled()) {
+            return next.startCall(call, headers);
+        }
+
+        String forwardedBy = headers.get(ClusterRouter.FORWARDED_HEADER);
+        boolean forwarded = forwardedBy != null
+                && router.isTrustedForwarder(forwardedBy, call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR));
+        if (forwardedBy != null && !forwarded) {
+            logger.debug("Ignoring {} header '{}' from {}", ClusterRouter.FORWARDED_HEADER.name(), forwardedBy,
+                    call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR));
+            headers.removeAll(ClusterRouter.FORWARDED_HEADER);
+        }
+
+        Context ctx = Context.current().withValue(ClusterRouter.FORWARDED, forwarded);
+        OwnerHeaderCall<ReqT, RespT> ownerHeaderCall = new OwnerHeaderCall<>(call);
+        ServerCall.Listener<ReqT> delegateListener = Contexts.interceptCall(ctx, ownerHeaderCall, headers, next);
+
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT>(delegateListener) {
+            @Override
+            public void onMessage(ReqT message) {
+                // Headers go out with the first response, which is always after the first request message
+                if (ownerHeaderCall.owner == null && message instanceof LocationRequest request) {
+                    ownerHeaderCall.owner = router.ownerOf(request.getCity() + ", " + request.getCountry()).address();
+                }
+                super.onMessage(message);
+            }
+        };
+    }
+
+    private static final class OwnerHeaderCall<ReqT, RespT> extends ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT> {
+        private volatile String owner;
+
+        OwnerHeaderCall(ServerCall<ReqT, RespT> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void sendHeaders(Metadata headers) {
+            if (owner != null) {
+                headers.put(ClusterRouter.OWNER_HEADER, owner);
+            }
+            super.sendHeaders(headers);
+        }
+    }
+}
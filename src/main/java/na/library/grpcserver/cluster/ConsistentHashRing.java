@@ -0,0 +1,33 @@
+package na.library.grpcserver.cluster;
+
+import na.library.grpcserver.config.ClusterProperties.Member;
+import na.library.grpcserver.util.StringHash;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maps locations to cluster members. Each member is placed on the ring at {@code virtualNodes} points, so load
+ * stays even and adding or removing a member only moves roughly 1/N of the locations.
+ */
+final class ConsistentHashRing {
+
+    private final TreeMap<Long, Member> ring = new TreeMap<>();
+
+    ConsistentHashRing(List<Member> members, int virtualNodes) {
+        for (Member member : members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(StringHash.hash64(member.id() + "#" + i), member);
+            }
+        }
+    }
+
+    Member ownerOf(String location) {
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("Cluster has no members");
+        }
+        Map.Entry<Long, Member> entry = ring.ceilingEntry(StringHash.hash64(location));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+}
@@ -0,0 +1,77 @@
+package na.library.grpcserver.cluster;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ServerCallStreamObserver;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Manual inbound flow control for a client stream whose messages are partly forwarded to other members.
+ * The next inbound message is only requested once the remote stream the last one went to is ready again,
+ * so a slow owner pushes back on the sender instead of its messages piling up in this node's buffers.
+ * Local messages need nothing extra: the partition ring already blocks while it is full.
+ * A failed remote stream never becomes ready again, so messages for it no longer wait (see {@link #closed}).
+ */
+final class ForwardingFlowControl {
+
+    private final ServerCallStreamObserver<?> inbound;
+    private ClientCallStreamObserver<?> awaiting; // guarded by this
+    private final Set<ClientCallStreamObserver<?>> failed = new HashSet<>(); // guarded by this
+
+    /**
+     * Must be created while the service method is still running, before it returns its request observer.
+     */
+    ForwardingFlowControl(ServerCallStreamObserver<?> inbound) {
+        this.inbound = inbound;
+        inbound.disableAutoRequest();
+        inbound.request(1);
+    }
+
+    /**
+     * The last inbound message was handled on this node.
+     */
+    void handledLocally() {
+        inbound.request(1);
+    }
+
+    /**
+     * The last inbound message was written to {@code remote}; asks for the next one as soon as it can take more.
+     */
+    synchronized void sent(ClientCallStreamObserver<?> remote) {
+        if (failed.contains(remote) || remote.isReady()) {
+            inbound.request(1);
+        } else {
+            awaiting = remote;
+        }
+    }
+
+    /**
+     * Called from the remote stream's on-ready handler.
+     */
+    synchronized void onReady(ClientCallStreamObserver<?> remote) {
+        if (awaiting == remote && remote.isReady()) {
+            awaiting = null;
+            inbound.request(1);
+        }
+    }
+
+    /**
+     * @return true once {@code remote} has failed; messages for it should be skipped, not written
+     */
+    synchronized boolean hasFailed(ClientCallStreamObserver<?> remote) {
+        return failed.contains(remote);
+    }
+
+    /**
+     * The remote stream failed and will never become ready; its error is reported when the call completes.
+     * Releases a wait on it, and later messages for it are requested without waiting.
+     */
+    synchronized void closed(ClientCallStreamObserver<?> remote) {
+        failed.add(remote);
+        if (awaiting == remote) {
+            awaiting = null;
+            inbound.request(1);
+        }
+    }
+}
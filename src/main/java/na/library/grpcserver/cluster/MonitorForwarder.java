@@ -0,0 +1,119 @@
+package na.library.grpcserver.cluster;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import na.library.grpcserver.config.ClusterProperties.Member;
+import na.library.grpcweather.proto.LocationRequest;
+import na.library.grpcweather.proto.WeatherAlert;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Relays a {@code MonitorWeather} stream to the owners of the monitored locations and merges their alerts back
+ * into the caller's stream. Alerts from remote members arrive on other threads, so every alert - local or
+ * remote - must be written through {@link #send}, which serializes access to the response observer.
+ * Like {@link SubmitForwarder} it takes over the incoming call's flow control, so requests handled locally must be
+ * reported through {@link #handledLocally()}.
+ */
+public final class MonitorForwarder {
+
+    private final ClusterRouter router;
+    private final StreamObserver<WeatherAlert> responseObserver;
+    private final ForwardingFlowControl flowControl;
+    private final Map<String, RemoteMonitor> remotes = new HashMap<>();
+
+    MonitorForwarder(ClusterRouter router, ServerCallStreamObserver<WeatherAlert> responseObserver) {
+        this.router = router;
+        this.responseObserver = responseObserver;
+        this.flowControl = new ForwardingFlowControl(responseObserver);
+    }
+
+    /**
+     * @return true if the location belongs to another member and the request was sent there
+     * (or skipped, if the stream to that member already failed)
+     */
+    public boolean forward(String location, LocationRequest request) {
+        Optional<Member> owner = router.remoteOwner(location);
+        if (owner.isEmpty()) {
+            return false;
+        }
+        RemoteMonitor remote = remotes.computeIfAbsent(owner.get().id(), id -> new RemoteMonitor(owner.get()));
+        if (flowControl.hasFailed(remote.requests)) {
+            // The owner's stream already failed and complete() reports its error; keep draining the caller
+            flowControl.handledLocally();
+            return true;
+        }
+        remote.requests.onNext(request);
+        flowControl.sent(remote.requests);
+        return true;
+    }
+
+    /**
+     * Requests the next location after one that was not forwarded.
+     */
+    public void handledLocally() {
+        flowControl.handledLocally();
+    }
+
+    public void send(WeatherAlert alert) {
+        synchronized (responseObserver) {
+            responseObserver.onNext(alert);
+        }
+    }
+
+    /**
+     * Half-closes every remote stream; completes once all of them have sent their last alert.
+     */
+    public CompletableFuture<Void> complete() {
+        List<CompletableFuture<Void>> finished = new ArrayList<>();
+        for (RemoteMonitor remote : remotes.values()) {
+            remote.requests.onCompleted();
+            finished.add(remote.finished);
+        }
+        return CompletableFuture.allOf(finished.toArray(new CompletableFuture[0]));
+    }
+
+    public void cancel(Throwable cause) {
+        for (RemoteMonitor remote : remotes.values()) {
+            remote.requests.onError(cause);
+        }
+    }
+
+    private final class RemoteMonitor implements ClientResponseObserver<LocationRequest, WeatherAlert> {
+        private final CompletableFuture<Void> finished = new CompletableFuture<>();
+        private ClientCallStreamObserver<LocationRequest> requests;
+
+        RemoteMonitor(Member owner) {
+            router.forwardingStub(owner).monitorWeather(this);
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<LocationRequest> requestStream) {
+            this.requests = requestStream;
+            requestStream.setOnReadyHandler(() -> flowControl.onReady(requestStream));
+        }
+
+        @Override
+        public void onNext(WeatherAlert alert) {
+            send(alert);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            finished.completeExceptionally(throwable);
+            flowControl.closed(requests);
+        }
+
+        @Override
+        public void onCompleted() {
+            finished.complete(null);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package na.library.grpcserver.cluster;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.ServerCallStreamObserver;
+import na.library.grpcserver.config.ClusterProperties.Member;
+import na.library.grpcweather.proto.SubmitResponse;
+import na.library.grpcweather.proto.WeatherData;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fans one incoming {@code SubmitWeatherData} stream out to the owners of its readings. A client stream to a
+ * member is opened the first time one of its locations shows up and reused for the rest of the call.
+ * Takes over the incoming call's flow control: the caller must report every reading it stored itself through
+ * {@link #handledLocally()}, and forwarded readings are only followed by the next one once the owner can take it.
+ * Used from a single call's callbacks, which gRPC serializes, so no locking is needed here.
+ */
+public final class SubmitForwarder {
+
+    private final ClusterRouter router;
+    private final ForwardingFlowControl flowControl;
+    private final Map<String, RemoteSubmit> remotes = new HashMap<>();
+
+    SubmitForwarder(ClusterRouter router, ServerCallStreamObserver<SubmitResponse> inbound) {
+        this.router = router;
+        this.flowControl = new ForwardingFlowControl(inbound);
+    }
+
+    /**
+     * @return true if the reading belongs to another member and was sent there
+     * (or skipped, if the stream to that member already failed)
+     */
+    public boolean forward(WeatherData reading) {
+        Optional<Member> owner = router.remoteOwner(reading.getLocation());
+        if (owner.isEmpty()) {
+            return false;
+        }
+        RemoteSubmit remote = remotes.computeIfAbsent(owner.get().id(), id -> new RemoteSubmit(owner.get()));
+        if (flowControl.hasFailed(remote.requests)) {
+            // The owner's stream already failed and complete() reports its error; keep draining the caller
+            flowControl.handledLocally();
+            return true;
+        }
+        remote.requests.onNext(reading);
+        flowControl.sent(remote.requests);
+        return true;
+    }
+
+    /**
+     * Requests the next reading after one that was not forwarded.
+     */
+    public void handledLocally() {
+        flowControl.handledLocally();
+    }
+
+    /**
+     * Half-closes every remote stream and combines the owners' responses.
+     */
+    public CompletableFuture<SubmitResponse> complete() {
+        List<CompletableFuture<SubmitResponse>> responses = new ArrayList<>();
+        for (RemoteSubmit remote : remotes.values()) {
+            remote.requests.onCompleted();
+            responses.add(remote.response);
+        }
+        return CompletableFuture.allOf(responses.toArray(new CompletableFuture[0]))
+                .thenApply(done -> {
+                    SubmitResponse.Builder combined = SubmitResponse.newBuilder().setSuccess(true);
+                    for (CompletableFuture<SubmitResponse> response : responses) {
+                        SubmitResponse remote = response.join();
+                        combined.setSuccess(combined.getSuccess() && remote.getSuccess())
+                                .setRecordsProcessed(combined.getRecordsProcessed() + remote.getRecordsProcessed())
+                                .setDuplicatesDropped(combined.getDuplicatesDropped() + remote.getDuplicatesDropped());
+                    }
+                    return combined.build();
+                });
+    }
+
+    public void cancel(Throwable cause) {
+        for (RemoteSubmit remote : remotes.values()) {
+            remote.requests.onError(cause);
+        }
+    }
+
+    private final class RemoteSubmit implements ClientResponseObserver<WeatherData, SubmitResponse> {
+        private final CompletableFuture<SubmitResponse> response = new CompletableFuture<>();
+        private ClientCallStreamObserver<WeatherData> requests;
+        private SubmitResponse received;
+
+        RemoteSubmit(Member owner) {
+            router.forwardingStub(owner).submitWeatherData(this);
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<WeatherData> requestStream) {
+            this.requests = requestStream;
+            requestStream.setOnReadyHandler(() -> flowControl.onReady(requestStream));
+        }
+
+        @Override
+        public void onNext(SubmitResponse submitResponse) {
+            received = submitResponse;
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            response.completeExceptionally(throwable);
+            flowControl.closed(requests);
+        }
+
+        @Override
+        public void onCompleted() {
+            response.complete(received != null ? received : SubmitResponse.getDefaultInstance());
+        }
+    }
+}
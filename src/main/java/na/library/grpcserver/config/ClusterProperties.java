@@ -0,0 +1,38 @@
+package na.library.grpcserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Static cluster membership (weather.cluster.*). Every node gets the same member list and its own node-id;
+ * locations are spread over the members with a consistent hash ring of {@code virtualNodes} points per member.
+ */
+@ConfigurationProperties(prefix = "weather.cluster")
+public record ClusterProperties(
+        @DefaultValue("false") boolean enabled,
+        String nodeId,
+        @DefaultValue List<Member> members,
+        @DefaultValue("128") int virtualNodes,
+        @DefaultValue("2") int channelsPerMember) {
+
+    public ClusterProperties {
+        if (enabled) {
+            if (members.stream().noneMatch(member -> member.id().equals(nodeId))) {
+                throw new IllegalArgumentException("weather.cluster.node-id '" + nodeId + "' is not in weather.cluster.members");
+            }
+            if (virtualNodes <= 0 || channelsPerMember <= 0) {
+                throw new IllegalArgumentException("weather.cluster.virtual-nodes and channels-per-member must be positive");
+            }
+        }
+        members = List.copyOf(members);
+    }
+
+    public record Member(String id, String host, int port) {
+
+        public String address() {
+            return host + ":" + port;
+        }
+    }
+}
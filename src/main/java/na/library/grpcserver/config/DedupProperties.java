@@ -0,0 +1,42 @@
+package na.library.grpcserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Sizing of the submission dedup index (weather.dedup.*).
+ * <p>
+ * Memory is bounded by {@code bucketCount} Bloom filter buckets sized for {@code expectedReadingsPerBucket}
+ * at {@code falsePositiveRate / bucketCount} each, plus at most {@code lruCapacity} exact entries of roughly
+ * 100 bytes each (map entry, batch id string, boxed sequence; more for long batch ids). With the defaults the
+ * index covers one hour of accepted readings (6 x 10 min buckets, 1M readings each) in about 17 MB of Bloom
+ * buckets plus about 10 MB of LRU, so roughly 27 MB in total. A bucket receiving more readings than expected
+ * still works, but its false positive rate rises quickly.
+ * <p>
+ * {@code falsePositiveRate} is the end-to-end share of readings missing from the LRU that are wrongly dropped as
+ * duplicates; it does not depend on {@code lruCapacity}. A station may resume a batch for up to
+ * {@code bucketDuration * (bucketCount - 1)} after its readings were accepted and still be deduplicated.
+ */
+@ConfigurationProperties(prefix = "weather.dedup")
+public record DedupProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") int lruCapacity,
+        @DefaultValue("1000000") long expectedReadingsPerBucket,
+        @DefaultValue("0.0001") double falsePositiveRate,
+        @DefaultValue("10m") Duration bucketDuration,
+        @DefaultValue("6") int bucketCount) {
+
+    public DedupProperties {
+        if (lruCapacity <= 0 || expectedReadingsPerBucket <= 0 || bucketCount <= 0) {
+            throw new IllegalArgumentException("weather.dedup sizes must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("weather.dedup.false-positive-rate must be between 0 and 1");
+        }
+        if (bucketDuration.isZero() || bucketDuration.isNegative()) {
+            throw new IllegalArgumentException("weather.dedup.bucket-duration must be positive");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package na.library.grpcserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Shared forecast broadcasts (weather.forecast.*).
+ * A {@code schedulerThreads} of 0 means one scheduler thread per available processor.
+ */
+@ConfigurationProperties(prefix = "weather.forecast")
+public record ForecastProperties(
+        @DefaultValue("0") int schedulerThreads) {
+
+    public ForecastProperties {
+        if (schedulerThreads < 0) {
+            throw new IllegalArgumentException("weather.forecast.scheduler-threads must not be negative");
+        }
+    }
+
+    public int effectiveSchedulerThreads() {
+        return schedulerThreads > 0 ? schedulerThreads : Runtime.getRuntime().availableProcessors();
+    }
+}
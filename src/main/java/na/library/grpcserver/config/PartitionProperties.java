@@ -0,0 +1,27 @@
+package na.library.grpcserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Location partitioning of ingest and alert state (weather.partition.*).
+ * A {@code count} of 0 means one partition per available processor.
+ */
+@ConfigurationProperties(prefix = "weather.partition")
+public record PartitionProperties(
+        @DefaultValue("0") int count,
+        @DefaultValue("4096") int ringCapacity) {
+
+    public PartitionProperties {
+        if (count < 0) {
+            throw new IllegalArgumentException("weather.partition.count must not be negative");
+        }
+        if (ringCapacity < 2 || Integer.bitCount(ringCapacity) != 1) {
+            throw new IllegalArgumentException("weather.partition.ring-capacity must be a power of two");
+        }
+    }
+
+    public int effectiveCount() {
+        return count > 0 ? count : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,38 @@
+package na.library.grpcserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Which weather data provider serves requests (weather.provider.*).
+ *
+ * @param seed        synthetic provider only; when set, identical requests give identical values
+ * @param replayFile  replay provider only; file written by ReplayFileWriter
+ */
+@ConfigurationProperties(prefix = "weather.provider")
+public record ProviderProperties(
+        @DefaultValue("synthetic") Type type,
+        Long seed,
+        Path replayFile,
+        @DefaultValue Cache cache) {
+
+    public ProviderProperties {
+        if (type == Type.REPLAY && replayFile == null) {
+            throw new IllegalArgumentException("weather.provider.replay-file is required for the replay provider");
+        }
+    }
+
+    public enum Type {
+        SYNTHETIC,
+        REPLAY
+    }
+
+    public record Cache(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("30s") Duration ttl,
+            @DefaultValue("10000") int maxEntries) {
+    }
+}
@@ -0,0 +1,61 @@
+package na.library.grpcserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the REST bridge's gRPC client (weather.client.*).
+ * Timeouts, retries and hedging are turned into a gRPC service config for the channel.
+ */
+@ConfigurationProperties(prefix = "weather.client")
+public record WeatherClientProperties(
+        @DefaultValue("localhost:9091") String target,
+        @DefaultValue Timeouts timeouts,
+        @DefaultValue Retry retry,
+        @DefaultValue Hedging hedging,
+        @DefaultValue RetryBudget retryBudget) {
+
+    /**
+     * Per-method deadlines. MonitorWeather is long-lived and has none.
+     */
+    public record Timeouts(
+            @DefaultValue("2s") Duration currentWeather,
+            @DefaultValue("15s") Duration forecast,
+            @DefaultValue("1m") Duration submit) {
+    }
+
+    /**
+     * Retries on transient failures for GetCurrentWeather (when hedging is off) and GetWeatherForecast.
+     */
+    public record Retry(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("3") int maxAttempts,
+            @DefaultValue("100ms") Duration initialBackoff,
+            @DefaultValue("1s") Duration maxBackoff,
+            @DefaultValue("2") double backoffMultiplier,
+            @DefaultValue("UNAVAILABLE") List<String> retryableStatusCodes) {
+    }
+
+    /**
+     * Hedging for GetCurrentWeather, which is idempotent: if no response arrived after {@code delay},
+     * another attempt is sent and the first response wins. Replaces the retry policy for that method.
+     */
+    public record Hedging(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("2") int maxAttempts,
+            @DefaultValue("50ms") Duration delay,
+            @DefaultValue("UNAVAILABLE") List<String> nonFatalStatusCodes) {
+    }
+
+    /**
+     * gRPC retry throttling: each failure costs a token, each success returns {@code tokenRatio};
+     * below half of {@code maxTokens} no more retries or hedges are sent.
+     */
+    public record RetryBudget(
+            @DefaultValue("10") int maxTokens,
+            @DefaultValue("0.1") double tokenRatio) {
+    }
+}
@@ -1,7 +1,9 @@
 package na.library.grpcserver.controller;
 
+import na.library.grpcserver.client.HedgingStats;
 import na.library.grpcserver.client.WeatherClient;
 import na.library.grpcweather.proto.*;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.ArrayList;
@@ -9,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 
 @RestController
+@ConditionalOnProperty(prefix = "weather.rest-bridge", name = "enabled", havingValue = "true", matchIfMissing = true)
 @RequestMapping("/api/weather")
 public class WeatherController {
 
@@ -33,7 +36,8 @@ public class WeatherController {
 
     // Demonstrate Client Streaming RPC
     @PostMapping("/submit")
-    public SubmitResponse submitWeatherData(@RequestBody List<Map<String, Object>> dataList) throws InterruptedException {
+    public SubmitResponse submitWeatherData(@RequestBody List<Map<String, Object>> dataList,
+                                            @RequestParam(required = false) String batchId) throws InterruptedException {
         List<WeatherData> weatherDataList = new ArrayList<>();
 
         for (Map<String, Object> data : dataList) {
@@ -46,9 +50,18 @@ public class WeatherController {
             weatherDataList.add(weatherClient.createWeatherData(location, temperature, humidity, pressure, windSpeed));
         }
 
+        if (batchId != null && !batchId.isEmpty()) {
+            return weatherClient.submitWeatherData(batchId, weatherDataList);
+        }
         return weatherClient.submitWeatherData(weatherDataList);
     }
 
+    // Hedging statistics of the bridge's gRPC client
+    @GetMapping("/client/hedging")
+    public HedgingStats.Snapshot getHedgingStats() {
+        return weatherClient.getHedgingStats();
+    }
+
     // Demonstrate Bidirectional Streaming RPC
     @PostMapping("/monitor")
     public List<WeatherAlert> monitorWeather(@RequestBody List<Map<String, String>> locations) throws InterruptedException {
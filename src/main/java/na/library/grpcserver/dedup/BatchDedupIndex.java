@@ -0,0 +1,138 @@
+package na.library.grpcserver.dedup;
+
+import na.library.grpcserver.config.DedupProperties;
+import na.library.grpcserver.util.StringHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Recognizes readings that were already accepted, so a station retrying a failed
+ * {@code SubmitWeatherData} stream does not get its readings counted twice.
+ * <p>
+ * A reading is identified by its {@code batch_id} and {@code sequence}. Recent batches are tracked exactly in
+ * an LRU (batch id -> highest sequence accepted), which also handles a retry that resumes half-way through a batch.
+ * Every accepted reading is also put into a time-bucketed Bloom filter keyed on (batch id, sequence), so once a
+ * batch has been evicted from the LRU its accepted readings are still recognized while readings it never
+ * delivered - the rest of a long stream, or the unsent part of a failed one - are still accepted. A resumed batch
+ * is deduplicated for the whole Bloom window ({@code bucketDuration * bucketCount}); a retry that comes later is
+ * accepted again. The cost of the filter is that about {@code falsePositiveRate} of the readings missing from the
+ * LRU are wrongly dropped, however large the LRU is. Those drops are counted in {@link #bloomOnlyDrops()}.
+ * <p>
+ * Readings are only recorded through {@link #recordAccepted} once the caller has stored them, so readings of a
+ * stream that failed before they were accepted are not dropped when the station retries.
+ * Readings without a batch id (older clients) are never deduplicated.
+ */
+@Component
+public class BatchDedupIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchDedupIndex.class);
+    private static final int SEGMENTS = 16;
+
+    private final boolean enabled;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final TimeBucketedBloomFilter seenReadings;
+    private final LongAdder bloomOnlyDrops = new LongAdder();
+
+    @Autowired
+    public BatchDedupIndex(DedupProperties properties) {
+        this(properties, System::currentTimeMillis);
+    }
+
+    BatchDedupIndex(DedupProperties properties, LongSupplier clock) {
+        this.enabled = properties.enabled();
+        int segmentCapacity = Math.max(1, properties.lruCapacity() / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+        this.seenReadings = new TimeBucketedBloomFilter(properties.expectedReadingsPerBucket(),
+                properties.falsePositiveRate(), properties.bucketDuration(), properties.bucketCount(), clock);
+        logger.info("Batch dedup index enabled={}, lru capacity={}, bloom filter {} KB",
+                enabled, properties.lruCapacity(), seenReadings.memoryBytes() / 1024);
+    }
+
+    /**
+     * Tells whether the reading was already accepted. Does not record it; call {@link #recordAccepted} once the
+     * reading is stored.
+     *
+     * @return true if the reading should be skipped
+     */
+    public boolean isDuplicate(String batchId, long sequence) {
+        if (!enabled || batchId == null || batchId.isEmpty()) {
+            return false;
+        }
+        long hash = StringHash.hash64(batchId);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            Long highestSequence = segment.get(batchId);
+            if (highestSequence != null) {
+                return sequence <= highestSequence;
+            }
+        }
+        if (seenReadings.mightContain(readingHash(hash, sequence))) {
+            // Accepted within the Bloom window but already evicted from the exact index - or a false positive
+            bloomOnlyDrops.increment();
+            long drops = bloomOnlyDrops.sum();
+            if (Long.bitCount(drops) == 1) {
+                logger.info("Dropped reading {}/{} on the Bloom filter alone ({} such drops so far)",
+                        batchId, sequence, drops);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records that the reading was stored, so a later retry of it is recognized as a duplicate.
+     */
+    public void recordAccepted(String batchId, long sequence) {
+        if (!enabled || batchId == null || batchId.isEmpty()) {
+            return;
+        }
+        long hash = StringHash.hash64(batchId);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            Long highestSequence = segment.get(batchId);
+            if (highestSequence == null || sequence > highestSequence) {
+                segment.put(batchId, sequence);
+            }
+        }
+        seenReadings.put(readingHash(hash, sequence));
+    }
+
+    /**
+     * Readings dropped only because the Bloom filter matched them: retries of readings whose batch was evicted
+     * from the LRU, plus new readings hit by a false positive.
+     */
+    public long bloomOnlyDrops() {
+        return bloomOnlyDrops.sum();
+    }
+
+    private static long readingHash(long batchHash, long sequence) {
+        return StringHash.mix64(batchHash ^ sequence * 0x9E3779B97F4A7C15L);
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 60) & (SEGMENTS - 1)];
+    }
+
+    private static final class Segment extends LinkedHashMap<String, Long> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package na.library.grpcserver.dedup;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Ring of Bloom filters, one per time bucket. Inserts go to the current bucket and lookups check all of them,
+ * so a key is remembered for between {@code (bucketCount - 1)} and {@code bucketCount} bucket durations.
+ * When time moves into a new bucket, the oldest bucket is cleared and reused - memory never grows.
+ * Bits are set with CAS on an {@link AtomicLongArray}, so lookups and inserts are lock-free.
+ * <p>
+ * A lookup is a false positive if any bucket matches, so each bucket is sized for
+ * {@code falsePositiveRate / bucketCount}; {@code falsePositiveRate} is then the rate of the whole ring.
+ */
+final class TimeBucketedBloomFilter {
+
+    private final AtomicLongArray[] buckets;
+    private final long bitsPerBucket;
+    private final int hashFunctions;
+    private final long bucketMillis;
+    private final LongSupplier clock;
+    private volatile long currentEpoch;
+
+    TimeBucketedBloomFilter(long expectedInsertionsPerBucket, double falsePositiveRate,
+                            Duration bucketDuration, int bucketCount, LongSupplier clock) {
+        // Standard sizing: m = -n ln(p) / ln(2)^2, k = m/n ln(2), with p split evenly over the buckets
+        double bucketFalsePositiveRate = falsePositiveRate / bucketCount;
+        long bits = (long) Math.ceil(-expectedInsertionsPerBucket * Math.log(bucketFalsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = Math.toIntExact((bits + 63) / 64);
+        this.bitsPerBucket = (long) words * 64;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitsPerBucket / expectedInsertionsPerBucket * Math.log(2)));
+        this.bucketMillis = bucketDuration.toMillis();
+        this.clock = clock;
+        this.buckets = new AtomicLongArray[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new AtomicLongArray(words);
+        }
+        this.currentEpoch = clock.getAsLong() / bucketMillis;
+    }
+
+    boolean mightContain(long hash) {
+        rotate();
+        for (AtomicLongArray bucket : buckets) {
+            if (contains(bucket, hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void put(long hash) {
+        long epoch = rotate();
+        AtomicLongArray bucket = buckets[(int) Math.floorMod(epoch, (long) buckets.length)];
+        long h2 = secondHash(hash);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(hash + i * h2, bitsPerBucket);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = bucket.get(word)) & mask) == 0) {
+                if (bucket.compareAndSet(word, current, current | mask)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    long memoryBytes() {
+        return bitsPerBucket / 8 * buckets.length;
+    }
+
+    private boolean contains(AtomicLongArray bucket, long hash) {
+        long h2 = secondHash(hash);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(hash + i * h2, bitsPerBucket);
+            if ((bucket.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long rotate() {
+        long epoch = clock.getAsLong() / bucketMillis;
+        if (epoch == currentEpoch) {
+            return epoch;
+        }
+        synchronized (this) {
+            long current = currentEpoch;
+            if (epoch > current) {
+                long steps = Math.min(epoch - current, buckets.length);
+                for (long i = 1; i <= steps; i++) {
+                    AtomicLongArray expired = buckets[(int) Math.floorMod(current + i, (long) buckets.length)];
+                    for (int w = 0; w < expired.length(); w++) {
+                        expired.set(w, 0L);
+                    }
+                }
+                currentEpoch = epoch;
+            }
+            return currentEpoch;
+        }
+    }
+
+    private static long secondHash(long hash) {
+        // Kirsch-Mitzenmacher double hashing; force odd so the probe sequence covers the table
+        return Long.rotateLeft(hash * 0x9E3779B97F4A7C15L, 31) | 1L;
+    }
+}
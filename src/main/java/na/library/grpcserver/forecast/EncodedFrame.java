@@ -0,0 +1,28 @@
+package na.library.grpcserver.forecast;
+
+import com.google.protobuf.MessageLite;
+
+/**
+ * A response message serialized once and kept for reuse. The same bytes are written to every subscriber
+ * (see {@link PreEncodedMarshaller}), so they must never be modified after construction.
+ */
+public final class EncodedFrame {
+
+    private final byte[] bytes;
+
+    private EncodedFrame(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    public static EncodedFrame of(MessageLite message) {
+        return new EncodedFrame(message.toByteArray());
+    }
+
+    byte[] bytes() {
+        return bytes;
+    }
+
+    public int size() {
+        return bytes.length;
+    }
+}
@@ -0,0 +1,181 @@
+package na.library.grpcserver.forecast;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import na.library.grpcserver.config.ForecastProperties;
+import na.library.grpcweather.proto.WeatherResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+/**
+ * Shares one forecast generation between all concurrent {@code GetWeatherForecast} streams for a location.
+ * <p>
+ * The first subscriber starts a broadcast; every forecast message is generated and serialized once into an
+ * {@link EncodedFrame} and written to all subscribers. A subscriber joining late first receives the frames
+ * already emitted, so every stream still sees the full forecast. Once the last day is sent the broadcast ends
+ * and the next request starts a fresh one.
+ * <p>
+ * Each broadcast schedules its next step only after the previous one ran, so its days are generated and sent
+ * in order and it completes only after the last day, even when the scheduler falls behind.
+ */
+@Component
+public class ForecastBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(ForecastBroadcaster.class);
+
+    static final int FORECAST_DAYS = 5;
+    static final long UPDATE_INTERVAL_MILLIS = 500;
+
+    private final Map<String, Broadcast> broadcasts = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public ForecastBroadcaster(ForecastProperties properties) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(properties.effectiveSchedulerThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "forecast-broadcast-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Attaches the stream to the running broadcast for the location, starting one if there is none.
+     *
+     * @param forecastForDay builds the forecast for day 0..4; only used if a new broadcast is started
+     */
+    public void subscribe(String location, StreamObserver<Object> responseObserver,
+                          IntFunction<WeatherResponse> forecastForDay) {
+        ServerCallStreamObserver<Object> subscriber = (ServerCallStreamObserver<Object>) responseObserver;
+        AtomicReference<Broadcast> attachedTo = new AtomicReference<>();
+        subscriber.setOnCancelHandler(() -> {
+            Broadcast broadcast = attachedTo.get();
+            if (broadcast != null) {
+                broadcast.detach(subscriber);
+            }
+        });
+
+        while (true) {
+            Broadcast broadcast = broadcasts.computeIfAbsent(location, key -> start(key, forecastForDay));
+            attachedTo.set(broadcast);
+            if (broadcast.attach(subscriber)) {
+                return;
+            }
+            // Finished between lookup and attach - start over with a new one
+            broadcasts.remove(location, broadcast);
+        }
+    }
+
+    private Broadcast start(String location, IntFunction<WeatherResponse> forecastForDay) {
+        logger.debug("Starting forecast broadcast for {}", location);
+        Broadcast broadcast = new Broadcast();
+        long startNanos = System.nanoTime();
+        scheduler.execute(() -> step(location, broadcast, forecastForDay, 0, startNanos));
+        return broadcast;
+    }
+
+    /**
+     * Publishes one day and schedules the next step; after the last day, completes the broadcast one interval later.
+     * Steps are due {@code UPDATE_INTERVAL_MILLIS} apart from the start, and a late step does not shift the rest.
+     */
+    private void step(String location, Broadcast broadcast, IntFunction<WeatherResponse> forecastForDay,
+                      int day, long startNanos) {
+        if (day == FORECAST_DAYS) {
+            broadcasts.remove(location, broadcast);
+            broadcast.complete();
+            return;
+        }
+        try {
+            broadcast.publish(EncodedFrame.of(forecastForDay.apply(day)));
+        } catch (RuntimeException e) {
+            logger.error("Forecast broadcast for {} failed on day {}", location, day, e);
+            broadcasts.remove(location, broadcast);
+            broadcast.fail(Status.INTERNAL.withDescription("Forecast generation failed").asRuntimeException());
+            return;
+        }
+        long nextDueNanos = startNanos + TimeUnit.MILLISECONDS.toNanos((day + 1) * UPDATE_INTERVAL_MILLIS);
+        scheduler.schedule(() -> step(location, broadcast, forecastForDay, day + 1, startNanos),
+                Math.max(0, nextDueNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Frames emitted so far plus the attached streams. All access is under the broadcast's lock, which also
+     * keeps writes to each subscriber from overlapping.
+     */
+    private static final class Broadcast {
+        private final List<EncodedFrame> emitted = new ArrayList<>();
+        private final List<ServerCallStreamObserver<Object>> subscribers = new ArrayList<>();
+        private boolean completed;
+
+        synchronized boolean attach(ServerCallStreamObserver<Object> subscriber) {
+            if (completed) {
+                return false;
+            }
+            for (EncodedFrame frame : emitted) {
+                subscriber.onNext(frame);
+            }
+            subscribers.add(subscriber);
+            return true;
+        }
+
+        synchronized void detach(ServerCallStreamObserver<Object> subscriber) {
+            subscribers.remove(subscriber);
+        }
+
+        synchronized void publish(EncodedFrame frame) {
+            emitted.add(frame);
+            subscribers.removeIf(subscriber -> {
+                try {
+                    subscriber.onNext(frame);
+                    return false;
+                } catch (RuntimeException e) {
+                    // Typically a stream cancelled by its client
+                    return true;
+                }
+            });
+        }
+
+        synchronized void complete() {
+            completed = true;
+            for (ServerCallStreamObserver<Object> subscriber : subscribers) {
+                try {
+                    subscriber.onCompleted();
+                } catch (RuntimeException e) {
+                    logger.debug("Could not complete forecast stream: {}", e.getMessage());
+                }
+            }
+            subscribers.clear();
+        }
+
+        synchronized void fail(StatusRuntimeException error) {
+            completed = true;
+            for (ServerCallStreamObserver<Object> subscriber : subscribers) {
+                try {
+                    subscriber.onError(error);
+                } catch (RuntimeException e) {
+                    logger.debug("Could not fail forecast stream: {}", e.getMessage());
+                }
+            }
+            subscribers.clear();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package na.library.grpcserver.forecast;
+
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Response marshaller that accepts either a regular message or an {@link EncodedFrame}. Frames are written
+ * straight from their shared byte array - no per-call serialization and no copy into an intermediate buffer.
+ */
+public final class PreEncodedMarshaller<T> implements MethodDescriptor.Marshaller<Object> {
+
+    private final MethodDescriptor.Marshaller<T> delegate;
+    private final Class<T> messageType;
+
+    private PreEncodedMarshaller(MethodDescriptor.Marshaller<T> delegate, Class<T> messageType) {
+        this.delegate = delegate;
+        this.messageType = messageType;
+    }
+
+    /**
+     * Copy of the method whose responses may also be {@link EncodedFrame}s. The request side is unchanged.
+     */
+    public static <ReqT, RespT> MethodDescriptor<ReqT, Object> preEncodedResponses(
+            MethodDescriptor<ReqT, RespT> method, Class<RespT> responseType) {
+        return method.toBuilder(method.getRequestMarshaller(),
+                        new PreEncodedMarshaller<>(method.getResponseMarshaller(), responseType))
+                .build();
+    }
+
+    @Override
+    public InputStream stream(Object value) {
+        if (value instanceof EncodedFrame frame) {
+            return new FrameInputStream(frame.bytes());
+        }
+        return delegate.stream(messageType.cast(value));
+    }
+
+    @Override
+    public Object parse(InputStream stream) {
+        return delegate.parse(stream);
+    }
+
+    private static final class FrameInputStream extends ByteArrayInputStream implements KnownLength, Drainable {
+
+        FrameInputStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public int drainTo(OutputStream target) throws IOException {
+            int length = count - pos;
+            target.write(buf, pos, length);
+            pos = count;
+            return length;
+        }
+    }
+}
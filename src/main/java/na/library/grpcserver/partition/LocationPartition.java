@@ -0,0 +1,104 @@
+package na.library.grpcserver.partition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * One shard of the location state and the single thread allowed to write it.
+ * Other threads only enqueue tasks; the writer drains them in order, so no task ever needs a lock.
+ */
+final class LocationPartition implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationPartition.class);
+    private static final int SPINS_BEFORE_PARK = 100;
+
+    private final MpscRingBuffer<Task> ring;
+    private final Map<String, LocationState> states = new HashMap<>();
+    private final Thread writer;
+    private volatile boolean writerParked;
+    private volatile boolean running = true;
+    private final AtomicInteger activeProducers = new AtomicInteger();
+
+    LocationPartition(int index, int ringCapacity) {
+        this.ring = new MpscRingBuffer<>(ringCapacity);
+        this.writer = new Thread(this, "weather-partition-" + index);
+        this.writer.setDaemon(true);
+    }
+
+    void start() {
+        writer.start();
+    }
+
+    /**
+     * Enqueues a task for the location. Blocks (spin, then park) while the ring is full, which pushes back on
+     * the gRPC threads instead of letting the backlog grow without bound.
+     *
+     * @throws RejectedExecutionException if the partition is stopping, as the task would never run
+     */
+    void execute(String location, Consumer<LocationState> action) {
+        Task task = new Task(location, action);
+        // Registered before checking running, so the writer keeps draining until every admitted producer is done
+        activeProducers.incrementAndGet();
+        try {
+            if (!running) {
+                throw new RejectedExecutionException("Partition " + writer.getName() + " is stopped");
+            }
+            int attempts = 0;
+            while (!ring.offer(task)) {
+                if (++attempts < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                }
+            }
+        } finally {
+            activeProducers.decrementAndGet();
+        }
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    @Override
+    public void run() {
+        int idle = 0;
+        while (running || activeProducers.get() > 0 || !ring.isEmpty()) {
+            Task task = ring.poll();
+            if (task != null) {
+                idle = 0;
+                try {
+                    task.action().accept(states.computeIfAbsent(task.location(), LocationState::new));
+                } catch (RuntimeException e) {
+                    logger.error("Partition task for {} failed", task.location(), e);
+                }
+                continue;
+            }
+            if (++idle < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+                continue;
+            }
+            writerParked = true;
+            if (ring.isEmpty() && running) {
+                LockSupport.park(this);
+            }
+            writerParked = false;
+        }
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private record Task(String location, Consumer<LocationState> action) {
+    }
+}
@@ -0,0 +1,95 @@
+package na.library.grpcserver.partition;
+
+import jakarta.annotation.PreDestroy;
+import na.library.grpcserver.config.PartitionProperties;
+import na.library.grpcweather.proto.WeatherAlert;
+import na.library.grpcweather.proto.WeatherData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Splits per-location state into N partitions by location hash. Each partition has exactly one writer thread
+ * fed through a bounded MPSC ring, so gRPC handler threads never share mutable state: they enqueue writes with
+ * {@link #execute} and reads are answered by the owning partition through {@link #query}.
+ */
+@Component
+public class LocationPartitioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationPartitioner.class);
+
+    private final LocationPartition[] partitions;
+
+    public LocationPartitioner(PartitionProperties properties) {
+        int count = properties.effectiveCount();
+        this.partitions = new LocationPartition[count];
+        for (int i = 0; i < count; i++) {
+            partitions[i] = new LocationPartition(i, properties.ringCapacity());
+            partitions[i].start();
+        }
+        logger.info("Started {} location partitions (ring capacity {})", count, properties.ringCapacity());
+    }
+
+    public int partitionCount() {
+        return partitions.length;
+    }
+
+    public int partitionOf(String location) {
+        int h = location.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), partitions.length);
+    }
+
+    /**
+     * Runs the action on the writer thread that owns the location. Returns once enqueued.
+     *
+     * @throws RejectedExecutionException once the partitioner is shut down
+     */
+    public void execute(String location, Consumer<LocationState> action) {
+        partitions[partitionOf(location)].execute(location, action);
+    }
+
+    /**
+     * Reads location state on its owning thread; the function must copy whatever it returns.
+     * After shutdown the future fails with a {@link RejectedExecutionException}.
+     */
+    public <T> CompletableFuture<T> query(String location, Function<LocationState, T> reader) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            execute(location, state -> {
+                try {
+                    result.complete(reader.apply(state));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    public void recordReading(WeatherData reading) {
+        execute(reading.getLocation(), state -> state.record(reading));
+    }
+
+    public void recordAlert(WeatherAlert alert) {
+        execute(alert.getLocation(), state -> state.addAlert(alert));
+    }
+
+    public CompletableFuture<List<WeatherAlert>> recentAlerts(String location) {
+        return query(location, LocationState::recentAlerts);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (LocationPartition partition : partitions) {
+            partition.stop();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package na.library.grpcserver.partition;
+
+import na.library.grpcweather.proto.WeatherAlert;
+import na.library.grpcweather.proto.WeatherData;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Everything the server keeps about one location. Instances are only ever touched by the writer thread of the
+ * partition that owns the location, so plain fields and collections are safe here. Anything handed out to other
+ * threads must be a copy (see {@link #recentAlerts()}).
+ */
+public final class LocationState {
+
+    static final int MAX_ALERTS = 100;
+
+    private final String location;
+    private final ArrayDeque<WeatherAlert> alerts = new ArrayDeque<>();
+    private long readingsReceived;
+    private WeatherData latestReading;
+
+    LocationState(String location) {
+        this.location = location;
+    }
+
+    public void record(WeatherData reading) {
+        readingsReceived++;
+        latestReading = reading;
+    }
+
+    public void addAlert(WeatherAlert alert) {
+        if (alerts.size() == MAX_ALERTS) {
+            alerts.removeFirst();
+        }
+        alerts.addLast(alert);
+    }
+
+    public String location() {
+        return location;
+    }
+
+    public long readingsReceived() {
+        return readingsReceived;
+    }
+
+    public WeatherData latestReading() {
+        return latestReading;
+    }
+
+    public List<WeatherAlert> recentAlerts() {
+        return List.copyOf(alerts);
+    }
+}
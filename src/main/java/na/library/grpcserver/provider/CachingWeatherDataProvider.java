@@ -0,0 +1,84 @@
+package na.library.grpcserver.provider;
+
+import na.library.grpcweather.proto.WeatherResponse;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Decorator that keeps each provider answer for a fixed time-to-live, so popular locations are generated
+ * (or decoded) once per TTL instead of once per call. At most {@code maxEntries} answers are held in a striped
+ * LRU: a full segment drops its least recently used answer on insert, so a miss costs O(1) however full the
+ * cache is. Expired answers are replaced when they are next requested or aged out by the LRU order.
+ */
+public class CachingWeatherDataProvider implements WeatherDataProvider {
+
+    private static final int SEGMENTS = 16;
+
+    private final WeatherDataProvider delegate;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public CachingWeatherDataProvider(WeatherDataProvider delegate, Duration ttl, int maxEntries) {
+        this(delegate, ttl, maxEntries, System::nanoTime);
+    }
+
+    CachingWeatherDataProvider(WeatherDataProvider delegate, Duration ttl, int maxEntries, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        int segmentCapacity = Math.max(1, maxEntries / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    @Override
+    public WeatherResponse currentWeather(String location) {
+        return cached(location, () -> delegate.currentWeather(location));
+    }
+
+    @Override
+    public WeatherResponse forecast(String location, int day) {
+        return cached(location + "#" + day, () -> delegate.forecast(location, day));
+    }
+
+    private WeatherResponse cached(String key, Supplier<WeatherResponse> loader) {
+        int h = key.hashCode();
+        Segment segment = segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+        long now = nanoClock.getAsLong();
+        synchronized (segment) {
+            Entry entry = segment.get(key);
+            if (entry != null && now - entry.loadedAt() < ttlNanos) {
+                return entry.value();
+            }
+        }
+        // Loaded outside the lock; concurrent misses for one key may both load, the last one is kept
+        WeatherResponse value = loader.get();
+        synchronized (segment) {
+            segment.put(key, new Entry(value, now));
+        }
+        return value;
+    }
+
+    private record Entry(WeatherResponse value, long loadedAt) {
+    }
+
+    private static final class Segment extends LinkedHashMap<String, Entry> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package na.library.grpcserver.provider;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Records readings into the compact binary format read by {@link ReplayWeatherDataProvider}.
+ * <pre>
+ * header : int magic "WXR1"
+ * record : short location length, UTF-8 location bytes,
+ *          float temperature, float humidity, float wind speed,
+ *          byte description index (see WeatherDescriptions), long epoch second
+ * </pre>
+ * All values are big-endian.
+ */
+public class ReplayFileWriter implements Closeable {
+
+    static final int MAGIC = 0x57585231; // "WXR1"
+
+    private final DataOutputStream out;
+
+    public ReplayFileWriter(Path file) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        out.writeInt(MAGIC);
+    }
+
+    public void append(String location, float temperature, float humidity, float windSpeed,
+                       String description, Instant time) throws IOException {
+        int descriptionIndex = WeatherDescriptions.ALL.indexOf(description);
+        if (descriptionIndex < 0) {
+            throw new IllegalArgumentException("Unknown weather description: " + description);
+        }
+        byte[] locationBytes = location.getBytes(StandardCharsets.UTF_8);
+        if (locationBytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Location too long: " + location);
+        }
+        out.writeShort(locationBytes.length);
+        out.write(locationBytes);
+        out.writeFloat(temperature);
+        out.writeFloat(humidity);
+        out.writeFloat(windSpeed);
+        out.writeByte(descriptionIndex);
+        out.writeLong(time.getEpochSecond());
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,114 @@
+package na.library.grpcserver.provider;
+
+import na.library.grpcweather.proto.WeatherResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams recorded readings from a file written by {@link ReplayFileWriter}.
+ * <p>
+ * The file is memory-mapped read-only and indexed once at startup (record offsets per location); serving a
+ * reading is then an absolute read from the mapping, with no I/O calls and no shared mutable buffer position.
+ * Current weather cycles through a location's recordings; forecast day N is the location's N-th recording.
+ * Locations missing from the file are served from all recordings, relabelled with the requested location.
+ */
+public class ReplayWeatherDataProvider implements WeatherDataProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayWeatherDataProvider.class);
+    private static final int VALUES_LENGTH = 4 + 4 + 4 + 1 + 8;
+
+    private final MappedByteBuffer buffer;
+    private final Map<String, Track> tracks = new HashMap<>();
+    private final Track allRecords;
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    public ReplayWeatherDataProvider(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map replay file " + file, e);
+        }
+        if (buffer.remaining() < 4 || buffer.getInt(0) != ReplayFileWriter.MAGIC) {
+            throw new IllegalArgumentException("Not a weather replay file: " + file);
+        }
+
+        Map<String, List<Integer>> offsets = new HashMap<>();
+        List<Integer> all = new ArrayList<>();
+        int position = 4;
+        while (position < buffer.limit()) {
+            int locationLength = position + 2 <= buffer.limit() ? buffer.getShort(position) : -1;
+            int valuesOffset = position + 2 + locationLength;
+            if (locationLength < 0 || valuesOffset + VALUES_LENGTH > buffer.limit()
+                    || !isDescriptionIndex(buffer.get(valuesOffset + 12))) {
+                throw new IllegalArgumentException(
+                        "Not a weather replay file (truncated or corrupt record at byte " + position + "): " + file);
+            }
+            byte[] locationBytes = new byte[locationLength];
+            buffer.get(position + 2, locationBytes);
+            offsets.computeIfAbsent(new String(locationBytes, StandardCharsets.UTF_8), key -> new ArrayList<>())
+                    .add(valuesOffset);
+            all.add(valuesOffset);
+            position = valuesOffset + VALUES_LENGTH;
+        }
+        if (all.isEmpty()) {
+            throw new IllegalArgumentException("Replay file has no recordings: " + file);
+        }
+        offsets.forEach((location, recordOffsets) -> tracks.put(location, new Track(recordOffsets)));
+        this.allRecords = new Track(all);
+        logger.info("Replaying {} recordings for {} locations from {}", all.size(), tracks.size(), file);
+    }
+
+    @Override
+    public WeatherResponse currentWeather(String location) {
+        Track track = tracks.getOrDefault(location, allRecords);
+        return read(location, track.offsets[Math.floorMod(track.cursor.getAndIncrement(), track.offsets.length)]);
+    }
+
+    @Override
+    public WeatherResponse forecast(String location, int day) {
+        Track track = tracks.getOrDefault(location, allRecords);
+        return read(location, track.offsets[day % track.offsets.length]);
+    }
+
+    private WeatherResponse read(String location, int offset) {
+        return WeatherResponse.newBuilder()
+                .setLocation(location)
+                .setTemperature(buffer.getFloat(offset))
+                .setHumidity(buffer.getFloat(offset + 4))
+                .setWindSpeed(buffer.getFloat(offset + 8))
+                .setDescription(WeatherDescriptions.ALL.get(buffer.get(offset + 12)))
+                .setTimestamp(formatter.format(Instant.ofEpochSecond(buffer.getLong(offset + 13))))
+                .build();
+    }
+
+    private static boolean isDescriptionIndex(byte index) {
+        return index >= 0 && index < WeatherDescriptions.ALL.size();
+    }
+
+    private static final class Track {
+        private final int[] offsets;
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        Track(List<Integer> offsets) {
+            this.offsets = offsets.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package na.library.grpcserver.provider;
+
+import na.library.grpcserver.util.StringHash;
+import na.library.grpcweather.proto.WeatherResponse;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Randomly generated weather without any shared random state.
+ * <p>
+ * Unseeded, values come from {@link ThreadLocalRandom}, so handler threads never contend on a common generator.
+ * With a seed, each reading comes from a {@link SplittableRandom} derived from (seed, location, day). The same
+ * request then always yields the same values, whatever thread serves it, which makes load tests reproducible.
+ */
+public class SyntheticWeatherDataProvider implements WeatherDataProvider {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final Long seed;
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * @param seed null for non-deterministic values
+     */
+    public SyntheticWeatherDataProvider(Long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public WeatherResponse currentWeather(String location) {
+        return reading(location, 0);
+    }
+
+    @Override
+    public WeatherResponse forecast(String location, int day) {
+        return reading(location, day);
+    }
+
+    private WeatherResponse reading(String location, int day) {
+        RandomGenerator random = seed == null
+                ? ThreadLocalRandom.current()
+                : new SplittableRandom(seed ^ StringHash.hash64(location) ^ (day + 1) * GOLDEN_GAMMA);
+
+        return WeatherResponse.newBuilder()
+                .setLocation(location)
+                .setTemperature(15 + random.nextFloat() * 15)
+                .setDescription(WeatherDescriptions.ALL.get(random.nextInt(WeatherDescriptions.ALL.size())))
+                .setHumidity(50 + random.nextFloat() * 40)
+                .setWindSpeed(5 + random.nextFloat() * 20)
+                .setTimestamp(LocalDateTime.now().plusDays(day).format(formatter))
+                .build();
+    }
+}
@@ -0,0 +1,21 @@
+package na.library.grpcserver.provider;
+
+import na.library.grpcweather.proto.WeatherResponse;
+
+/**
+ * Source of the weather readings served by {@code WeatherServiceImpl}.
+ * Implementations are called concurrently from gRPC and forecast threads and must be thread-safe.
+ * The implementation is chosen with {@code weather.provider.type} (see {@link WeatherDataProviderConfiguration}).
+ */
+public interface WeatherDataProvider {
+
+    /**
+     * @param location "City, Country"
+     */
+    WeatherResponse currentWeather(String location);
+
+    /**
+     * @param day days from today, 0 = today
+     */
+    WeatherResponse forecast(String location, int day);
+}
@@ -0,0 +1,32 @@
+package na.library.grpcserver.provider;
+
+import na.library.grpcserver.config.ProviderProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the {@link WeatherDataProvider} selected by {@code weather.provider.type},
+ * wrapped in the caching decorator when {@code weather.provider.cache.enabled} is set.
+ */
+@Configuration
+public class WeatherDataProviderConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeatherDataProviderConfiguration.class);
+
+    @Bean
+    public WeatherDataProvider weatherDataProvider(ProviderProperties properties) {
+        WeatherDataProvider provider = switch (properties.type()) {
+            case SYNTHETIC -> new SyntheticWeatherDataProvider(properties.seed());
+            case REPLAY -> new ReplayWeatherDataProvider(properties.replayFile());
+        };
+        logger.info("Weather data provider: {} (cache {})", properties.type(), properties.cache().enabled() ? "on" : "off");
+
+        ProviderProperties.Cache cache = properties.cache();
+        if (cache.enabled()) {
+            return new CachingWeatherDataProvider(provider, cache.ttl(), cache.maxEntries());
+        }
+        return provider;
+    }
+}
@@ -0,0 +1,16 @@
+package na.library.grpcserver.provider;
+
+import java.util.List;
+
+/**
+ * The weather descriptions the providers know about. Replay files store the index into this list,
+ * so only append to it.
+ */
+final class WeatherDescriptions {
+
+    static final List<String> ALL = List.of(
+            "Sunny", "Partly Cloudy", "Cloudy", "Overcast", "Light Rain", "Heavy Rain", "Thunderstorm", "Snowy", "Foggy");
+
+    private WeatherDescriptions() {
+    }
+}
@@ -1,6 +1,23 @@
 package na.library.grpcserver.service;
 
+import io.grpc.BindableService;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.ServiceDescriptor;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.ServerCalls;
 import io.grpc.stub.StreamObserver;
+import na.library.grpcserver.cluster.ClusterRouter;
+import na.library.grpcserver.cluster.MonitorForwarder;
+import na.library.grpcserver.cluster.SubmitForwarder;
+import na.library.grpcserver.config.ClusterProperties.Member;
+import na.library.grpcserver.dedup.BatchDedupIndex;
+import na.library.grpcserver.forecast.ForecastBroadcaster;
+import na.library.grpcserver.forecast.PreEncodedMarshaller;
+import na.library.grpcserver.partition.LocationPartitioner;
+import na.library.grpcserver.provider.WeatherDataProvider;
 import na.library.grpcweather.proto.*;
 import net.devh.boot.grpc.server.service.GrpcService;
 import org.springframework.stereotype.Service;
@@ -9,16 +26,57 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 
 @GrpcService
-public class WeatherServiceImpl extends WeatherServiceGrpc.WeatherServiceImplBase {
+public class WeatherServiceImpl implements WeatherServiceGrpc.AsyncService, BindableService {
 
-    private final Random random = new Random();
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private final ConcurrentMap<String, List<WeatherAlert>> alertsByLocation = new ConcurrentHashMap<>();
+    private final BatchDedupIndex dedupIndex;
+    private final LocationPartitioner partitioner;
+    private final ClusterRouter clusterRouter;
+    private final ForecastBroadcaster forecastBroadcaster;
+    private final WeatherDataProvider weatherDataProvider;
+
+    // GetWeatherForecast with a response marshaller that also writes pre-serialized frames
+    private static final MethodDescriptor<LocationRequest, Object> FORECAST_METHOD =
+            PreEncodedMarshaller.preEncodedResponses(WeatherServiceGrpc.getGetWeatherForecastMethod(), WeatherResponse.class);
+
+    public WeatherServiceImpl(BatchDedupIndex dedupIndex, LocationPartitioner partitioner, ClusterRouter clusterRouter,
+                              ForecastBroadcaster forecastBroadcaster, WeatherDataProvider weatherDataProvider) {
+        this.dedupIndex = dedupIndex;
+        this.partitioner = partitioner;
+        this.clusterRouter = clusterRouter;
+        this.forecastBroadcaster = forecastBroadcaster;
+        this.weatherDataProvider = weatherDataProvider;
+    }
+
+    // Same service as the generated one, except GetWeatherForecast is bound to FORECAST_METHOD
+    @Override
+    public ServerServiceDefinition bindService() {
+        ServerServiceDefinition generated = WeatherServiceGrpc.bindService(this);
+        ServiceDescriptor generatedDescriptor = generated.getServiceDescriptor();
+
+        // Keep the schema descriptor so the reflection service still describes the service
+        ServiceDescriptor.Builder descriptor = ServiceDescriptor.newBuilder(generatedDescriptor.getName())
+                .setSchemaDescriptor(generatedDescriptor.getSchemaDescriptor())
+                .addMethod(FORECAST_METHOD);
+        for (MethodDescriptor<?, ?> method : generatedDescriptor.getMethods()) {
+            if (!method.getFullMethodName().equals(FORECAST_METHOD.getFullMethodName())) {
+                descriptor.addMethod(method);
+            }
+        }
+
+        ServerServiceDefinition.Builder service = ServerServiceDefinition.builder(descriptor.build())
+                .addMethod(FORECAST_METHOD, ServerCalls.asyncServerStreamingCall(this::streamWeatherForecast));
+        for (ServerMethodDefinition<?, ?> method : generated.getMethods()) {
+            if (!method.getMethodDescriptor().getFullMethodName().equals(FORECAST_METHOD.getFullMethodName())) {
+                service.addMethod(method);
+            }
+        }
+        return service.build();
+    }
 
     // Unary RPC Implementation
     @Override
@@ -27,15 +85,14 @@ public class WeatherServiceImpl extends WeatherServiceGrpc.WeatherServiceImplBas
         if (request.getCity().isEmpty() || request.getCountry().isEmpty()) {
             throw new IllegalArgumentException("City and Country must not be empty");
         }
-        // Create a simulated weather response
-        WeatherResponse response = WeatherResponse.newBuilder()
-                .setLocation(request.getCity() + ", " + request.getCountry())
-                .setTemperature(15 + random.nextFloat() * 15)
-                .setDescription(getRandomWeatherDescription())
-                .setHumidity(50 + random.nextFloat() * 40)
-                .setWindSpeed(5 + random.nextFloat() * 20)
-                .setTimestamp(LocalDateTime.now().format(formatter))
-                .build();
+        // In cluster mode, let the owner of the location answer
+        Optional<Member> owner = clusterRouter.remoteOwner(request.getCity() + ", " + request.getCountry());
+        if (owner.isPresent()) {
+            clusterRouter.forwardingStub(owner.get()).getCurrentWeather(request, responseObserver);
+            return;
+        }
+        // Ask the configured data provider for the current weather
+        WeatherResponse response = weatherDataProvider.currentWeather(request.getCity() + ", " + request.getCountry());
 
         // Send the response
         responseObserver.onNext(response);
@@ -43,69 +100,97 @@ public class WeatherServiceImpl extends WeatherServiceGrpc.WeatherServiceImplBas
     }
 
     // Server Streaming RPC Implementation
-    @Override
-    public void getWeatherForecast(LocationRequest request, StreamObserver<WeatherResponse> responseObserver) {
+    // Bound by bindService() below; responses are WeatherResponse or pre-encoded EncodedFrame objects
+    private void streamWeatherForecast(LocationRequest request, StreamObserver<Object> responseObserver) {
         System.out.println("Received request for weather forecast in " + request.getCity() + ", " + request.getCountry());
+        String location = request.getCity() + ", " + request.getCountry();
+        Optional<Member> owner = clusterRouter.remoteOwner(location);
+        if (owner.isPresent()) {
+            clusterRouter.forwardingStub(owner.get()).getWeatherForecast(request, new StreamObserver<>() {
+                @Override
+                public void onNext(WeatherResponse response) {
+                    responseObserver.onNext(response);
+                }
 
-        // Simulate sending multiple forecast updates (one per day for next 5 days)
-        try {
-            for (int i = 0; i < 5; i++) {
-                LocalDateTime forecastDate = LocalDateTime.now().plusDays(i);
-
-                WeatherResponse response = WeatherResponse.newBuilder()
-                        .setLocation(request.getCity() + ", " + request.getCountry())
-                        .setTemperature(15 + random.nextFloat() * 15)
-                        .setDescription(getRandomWeatherDescription())
-                        .setHumidity(50 + random.nextFloat() * 40)
-                        .setWindSpeed(5 + random.nextFloat() * 20)
-                        .setTimestamp(forecastDate.format(formatter))
-                        .build();
-
-                responseObserver.onNext(response);
+                @Override
+                public void onError(Throwable throwable) {
+                    responseObserver.onError(throwable);
+                }
 
-                // Simulate delay between forecast updates
-                Thread.sleep(500);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            responseObserver.onError(e);
+                @Override
+                public void onCompleted() {
+                    responseObserver.onCompleted();
+                }
+            });
             return;
         }
 
-        responseObserver.onCompleted();
+        // Concurrent streams for the same location share one generation (one forecast update per day, 500ms apart)
+        forecastBroadcaster.subscribe(location, responseObserver, day -> weatherDataProvider.forecast(location, day));
     }
 
     // Client Streaming RPC Implementation
     @Override
     public StreamObserver<WeatherData> submitWeatherData(StreamObserver<SubmitResponse> responseObserver) {
         return new StreamObserver<>() {
-            private final List<WeatherData> receivedData = new ArrayList<>();
+            // Per-call counters; gRPC delivers a call's callbacks one at a time
+            private int recordsProcessed;
+            private int duplicatesDropped;
+            // Also paces the incoming readings, so a slow owner pushes back on the station
+            private final SubmitForwarder forwarder =
+                    clusterRouter.newSubmitForwarder((ServerCallStreamObserver<SubmitResponse>) responseObserver);
 
             @Override
             public void onNext(WeatherData weatherData) {
                 System.out.println("Received weather data for: " + weatherData.getLocation());
-                receivedData.add(weatherData);
+                // Readings for locations owned by other members are deduplicated and stored there
+                if (forwarder.forward(weatherData)) {
+                    return;
+                }
+                // Skip readings a retrying station already delivered on an earlier attempt
+                if (dedupIndex.isDuplicate(weatherData.getBatchId(), weatherData.getSequence())) {
+                    duplicatesDropped++;
+                } else {
+                    // Hand the reading to the partition that owns its location; only then is it a duplicate on retry
+                    partitioner.recordReading(weatherData);
+                    dedupIndex.recordAccepted(weatherData.getBatchId(), weatherData.getSequence());
+                    recordsProcessed++;
+                }
+                forwarder.handledLocally();
             }
 
             @Override
             public void onError(Throwable throwable) {
                 System.err.println("Error during submitWeatherData: " + throwable.getMessage());
+                forwarder.cancel(throwable);
                 responseObserver.onError(throwable);
             }
 
             @Override
             public void onCompleted() {
-                System.out.println("Completed receiving weather data. Total records: " + receivedData.size());
+                System.out.println("Completed receiving weather data. Total records: " + recordsProcessed
+                        + ", duplicates dropped: " + duplicatesDropped);
+
+                // Combine the local result with the results of the members readings were forwarded to
+                forwarder.complete().whenComplete((remote, error) -> {
+                    if (error != null) {
+                        responseObserver.onError(Status.fromThrowable(error).asRuntimeException());
+                        return;
+                    }
+                    int processed = recordsProcessed + remote.getRecordsProcessed();
+                    int duplicates = duplicatesDropped + remote.getDuplicatesDropped();
 
-                // Process all collected weather data
-                SubmitResponse response = SubmitResponse.newBuilder()
-                        .setSuccess(true)
-                        .setRecordsProcessed(receivedData.size())
-                        .setMessage("Successfully processed " + receivedData.size() + " weather data records")
-                        .build();
+                    SubmitResponse response = SubmitResponse.newBuilder()
+                            .setSuccess(remote.getSuccess())
+                            .setRecordsProcessed(processed)
+                            .setDuplicatesDropped(duplicates)
+                            .setMessage("Successfully processed " + processed + " weather data records"
+                                    + (duplicates > 0 ? " (" + duplicates + " duplicates dropped)" : ""))
+                            .build();
 
-                responseObserver.onNext(response);
-                responseObserver.onCompleted();
+                    responseObserver.onNext(response);
+                    responseObserver.onCompleted();
+                });
             }
         };
     }
@@ -114,57 +199,67 @@ public class WeatherServiceImpl extends WeatherServiceGrpc.WeatherServiceImplBas
     @Override
     public StreamObserver<LocationRequest> monitorWeather(StreamObserver<WeatherAlert> responseObserver) {
         return new StreamObserver<>() {
+            // Only touched from this call's callbacks, which gRPC serializes
             private final List<String> monitoredLocations = new ArrayList<>();
+            // Writes every alert, including those relayed from the members owning forwarded locations
+            private final MonitorForwarder forwarder =
+                    clusterRouter.newMonitorForwarder((ServerCallStreamObserver<WeatherAlert>) responseObserver);
 
             @Override
             public void onNext(LocationRequest request) {
                 String location = request.getCity() + ", " + request.getCountry();
+                if (forwarder.forward(location, request)) {
+                    return;
+                }
                 System.out.println("Started monitoring weather for: " + location);
                 monitoredLocations.add(location);
 
                 // Simulate generating a random alert for this location
-                if (random.nextBoolean()) {
+                if (ThreadLocalRandom.current().nextBoolean()) {
                     WeatherAlert alert = generateRandomAlert(location);
-                    responseObserver.onNext(alert);
+                    forwarder.send(alert);
 
-                    // Store the alert
-                    alertsByLocation.computeIfAbsent(location, k -> new ArrayList<>()).add(alert);
+                    // Store the alert on the partition that owns the location
+                    partitioner.recordAlert(alert);
                 }
+                forwarder.handledLocally();
             }
 
             @Override
             public void onError(Throwable throwable) {
                 System.err.println("Error during monitorWeather: " + throwable.getMessage());
+                forwarder.cancel(throwable);
             }
 
             @Override
             public void onCompleted() {
                 System.out.println("Client completed monitoring requests. Sending any remaining alerts...");
 
-                // Send any final alerts
-                for (String location : monitoredLocations) {
-                    if (random.nextBoolean()) {
-                        responseObserver.onNext(generateRandomAlert(location));
+                // Wait for forwarded locations to finish, then send any final local alerts
+                forwarder.complete().whenComplete((done, error) -> {
+                    if (error != null) {
+                        responseObserver.onError(Status.fromThrowable(error).asRuntimeException());
+                        return;
+                    }
+                    for (String location : monitoredLocations) {
+                        if (ThreadLocalRandom.current().nextBoolean()) {
+                            forwarder.send(generateRandomAlert(location));
+                        }
                     }
-                }
 
-                responseObserver.onCompleted();
+                    responseObserver.onCompleted();
+                });
             }
         };
     }
 
     // Helper methods
-    private String getRandomWeatherDescription() {
-        String[] descriptions = {"Sunny", "Partly Cloudy", "Cloudy", "Overcast", "Light Rain", "Heavy Rain", "Thunderstorm", "Snowy", "Foggy"};
-        return descriptions[random.nextInt(descriptions.length)];
-    }
-
     private WeatherAlert generateRandomAlert(String location) {
         String[] alertTypes = {"STORM", "HEAT_WAVE", "FLOOD", "TORNADO", "HURRICANE", "BLIZZARD", "HIGH_WINDS"};
         String[] severities = {"LOW", "MEDIUM", "HIGH", "SEVERE"};
 
-        String alertType = alertTypes[random.nextInt(alertTypes.length)];
-        String severity = severities[random.nextInt(severities.length)];
+        String alertType = alertTypes[ThreadLocalRandom.current().nextInt(alertTypes.length)];
+        String severity = severities[ThreadLocalRandom.current().nextInt(severities.length)];
         String description = generateAlertDescription(alertType);
 
         return WeatherAlert.newBuilder()
@@ -0,0 +1,30 @@
+package na.library.grpcserver.util;
+
+/**
+ * Fast, well-mixed 64-bit string hash shared by the dedup index and the cluster hash ring.
+ */
+public final class StringHash {
+
+    private StringHash() {
+    }
+
+    // 64-bit FNV-1a over the UTF-16 chars, finished with the murmur3 fmix64 avalanche
+    public static long hash64(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix64(h);
+    }
+
+    // murmur3 fmix64: spreads every input bit over the whole result
+    public static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
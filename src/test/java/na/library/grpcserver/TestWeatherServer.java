@@ -0,0 +1,66 @@
+package na.library.grpcserver;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import na.library.grpcserver.cluster.ClusterRouter;
+import na.library.grpcserver.cluster.ClusterRoutingInterceptor;
+import na.library.grpcserver.config.ClusterProperties;
+import na.library.grpcserver.config.DedupProperties;
+import na.library.grpcserver.config.ForecastProperties;
+import na.library.grpcserver.config.PartitionProperties;
+import na.library.grpcserver.dedup.BatchDedupIndex;
+import na.library.grpcserver.forecast.ForecastBroadcaster;
+import na.library.grpcserver.partition.LocationPartitioner;
+import na.library.grpcserver.provider.WeatherDataProvider;
+import na.library.grpcserver.service.WeatherServiceImpl;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A gRPC server on a local port with WeatherServiceImpl wired the way Spring wires it, for tests that need
+ * real calls without starting the application context.
+ */
+public final class TestWeatherServer implements AutoCloseable {
+
+    public final ClusterRouter router;
+    public final LocationPartitioner partitioner;
+    public final ForecastBroadcaster forecastBroadcaster;
+    public final Server server;
+
+    /**
+     * A single node on a free port, cluster mode off.
+     */
+    public static TestWeatherServer standalone(WeatherDataProvider provider) throws IOException {
+        return new TestWeatherServer(new ClusterProperties(false, null, List.of(), 128, 2), 0, provider);
+    }
+
+    public TestWeatherServer(ClusterProperties cluster, int port, WeatherDataProvider provider) throws IOException {
+        this.router = new ClusterRouter(cluster);
+        this.partitioner = new LocationPartitioner(new PartitionProperties(2, 1024));
+        this.forecastBroadcaster = new ForecastBroadcaster(new ForecastProperties(2));
+        BatchDedupIndex dedupIndex = new BatchDedupIndex(
+                new DedupProperties(true, 10_000, 100_000, 0.0001, Duration.ofMinutes(10), 6));
+        WeatherServiceImpl service = new WeatherServiceImpl(dedupIndex, partitioner, router, forecastBroadcaster, provider);
+        this.server = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                .addService(ServerInterceptors.intercept(service, new ClusterRoutingInterceptor(router)))
+                .build()
+                .start();
+    }
+
+    public int port() {
+        return server.getPort();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        router.shutdown();
+        partitioner.shutdown();
+        forecastBroadcaster.shutdown();
+    }
+}
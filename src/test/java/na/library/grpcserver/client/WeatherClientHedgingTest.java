@@ -0,0 +1,115 @@
+package na.library.grpcserver.client;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.stub.StreamObserver;
+import na.library.grpcserver.config.WeatherClientProperties;
+import na.library.grpcweather.proto.LocationRequest;
+import na.library.grpcweather.proto.WeatherResponse;
+import na.library.grpcweather.proto.WeatherServiceGrpc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WeatherClientHedgingTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeatherClientHedgingTest.class);
+    private static final int CALLS = 500;
+    private static final int SLOW_EVERY = 25; // 4% of attempts hit a slow server
+    private static final long SLOW_MILLIS = 300;
+
+    private Server server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(new SlowSometimesService())
+                .build()
+                .start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void hedgingCutsTailLatency() throws Exception {
+        WeatherClient plain = new WeatherClient(properties(false));
+        WeatherClient hedged = new WeatherClient(properties(true));
+        try {
+            long[] plainLatencies = measure(plain);
+            long[] hedgedLatencies = measure(hedged);
+
+            logger.info("without hedging: p99={}ms p999={}ms", percentile(plainLatencies, 0.99), percentile(plainLatencies, 0.999));
+            logger.info("with hedging:    p99={}ms p999={}ms, {}", percentile(hedgedLatencies, 0.99),
+                    percentile(hedgedLatencies, 0.999), hedged.getHedgingStats());
+
+            // Relative checks only, so a slow or loaded machine does not fail the build
+            assertTrue(percentile(hedgedLatencies, 0.99) < percentile(plainLatencies, 0.99));
+            assertTrue(percentile(hedgedLatencies, 0.999) < percentile(plainLatencies, 0.999));
+            assertTrue(hedged.getHedgingStats().hedgeWins() > 0);
+            assertEquals(0, plain.getHedgingStats().calls(), "calls without a hedging policy are not counted");
+        } finally {
+            plain.shutdown();
+            hedged.shutdown();
+        }
+    }
+
+    private WeatherClientProperties properties(boolean hedging) {
+        return new WeatherClientProperties(
+                "localhost:" + server.getPort(),
+                new WeatherClientProperties.Timeouts(Duration.ofSeconds(2), Duration.ofSeconds(15), Duration.ofMinutes(1)),
+                new WeatherClientProperties.Retry(true, 3, Duration.ofMillis(100), Duration.ofSeconds(1), 2, List.of("UNAVAILABLE")),
+                new WeatherClientProperties.Hedging(hedging, 2, Duration.ofMillis(30), List.of("UNAVAILABLE")),
+                new WeatherClientProperties.RetryBudget(10, 0.1));
+    }
+
+    private static long[] measure(WeatherClient client) {
+        client.getCurrentWeather("Warmup", "Test");
+        long[] latencies = new long[CALLS];
+        for (int i = 0; i < CALLS; i++) {
+            long start = System.nanoTime();
+            client.getCurrentWeather("Ankara", "Turkey");
+            latencies[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    // Every SLOW_EVERY-th attempt is delayed, like an occasional slow server behind the same target
+    private static final class SlowSometimesService extends WeatherServiceGrpc.WeatherServiceImplBase {
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        @Override
+        public void getCurrentWeather(LocationRequest request, StreamObserver<WeatherResponse> responseObserver) {
+            if (attempts.incrementAndGet() % SLOW_EVERY == 0) {
+                try {
+                    Thread.sleep(SLOW_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            responseObserver.onNext(WeatherResponse.newBuilder()
+                    .setLocation(request.getCity() + ", " + request.getCountry())
+                    .build());
+            responseObserver.onCompleted();
+        }
+    }
+}
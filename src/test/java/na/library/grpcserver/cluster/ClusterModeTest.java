@@ -0,0 +1,180 @@
+package na.library.grpcserver.cluster;
+
+import io.grpc.Channel;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Metadata;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import na.library.grpcweather.proto.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClusterModeTest {
+
+    private LocalCluster cluster;
+    private final List<ManagedChannel> channels = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cluster = new LocalCluster(3);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (ManagedChannel channel : channels) {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+        cluster.close();
+    }
+
+    @Test
+    void anyNodeAnswersAndReportsTheOwner() {
+        AtomicReference<Metadata> headers = new AtomicReference<>();
+        AtomicReference<Metadata> trailers = new AtomicReference<>();
+        WeatherServiceGrpc.WeatherServiceBlockingStub stub = WeatherServiceGrpc.newBlockingStub(channelTo(0))
+                .withInterceptors(MetadataUtils.newCaptureMetadataInterceptor(headers, trailers));
+
+        Set<String> owners = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            LocationRequest request = LocationRequest.newBuilder().setCity("City-" + i).setCountry("TR").build();
+            WeatherResponse response = stub.getCurrentWeather(request);
+
+            assertEquals("City-" + i + ", TR", response.getLocation());
+            String expectedOwner = cluster.nodes.get(0).router.ownerOf(response.getLocation()).address();
+            assertEquals(expectedOwner, headers.get().get(ClusterRouter.OWNER_HEADER));
+            owners.add(expectedOwner);
+        }
+        assertTrue(owners.size() > 1, "locations should spread over several nodes");
+    }
+
+    @Test
+    void submittedReadingsAreStoredAndDeduplicatedOnTheOwner() throws Exception {
+        List<WeatherData> batch = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            batch.add(WeatherData.newBuilder()
+                    .setLocation("City-" + (i % 10) + ", TR")
+                    .setTemperature(20)
+                    .setBatchId("station-1/1")
+                    .setSequence(i)
+                    .build());
+        }
+
+        SubmitResponse first = submit(channelTo(0), batch);
+        assertEquals(30, first.getRecordsProcessed());
+
+        assertStoredOnOwnersOnly(10, 3);
+
+        // Retry through a different node - every owner recognizes its part of the batch
+        SubmitResponse retry = submit(channelTo(1), batch);
+        assertEquals(0, retry.getRecordsProcessed());
+        assertEquals(30, retry.getDuplicatesDropped());
+    }
+
+    @Test
+    void forwardedHeaderFromNonMemberIsIgnored() throws Exception {
+        List<WeatherData> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(WeatherData.newBuilder().setLocation("City-" + i + ", TR").setTemperature(20).build());
+        }
+        Metadata spoofed = new Metadata();
+        spoofed.put(ClusterRouter.FORWARDED_HEADER, "smart-client");
+        Channel channel = ClientInterceptors.intercept(channelTo(0), MetadataUtils.newAttachHeadersInterceptor(spoofed));
+
+        assertEquals(10, submit(channel, batch).getRecordsProcessed());
+
+        // Node 0 still forwarded every reading it does not own
+        assertStoredOnOwnersOnly(10, 1);
+    }
+
+    @Test
+    void submitCompletesWhenAnOwnerStopsMidStream() throws Exception {
+        List<String> ownedByStopped = new ArrayList<>();
+        for (int i = 0; ownedByStopped.size() < 5; i++) {
+            String location = "City-" + i + ", TR";
+            if (cluster.nodes.get(0).router.ownerOf(location).id().equals("node-2")) {
+                ownedByStopped.add(location);
+            }
+        }
+
+        CompletableFuture<SubmitResponse> result = new CompletableFuture<>();
+        StreamObserver<WeatherData> requests = openSubmit(channelTo(0), result);
+        for (String location : ownedByStopped) {
+            requests.onNext(WeatherData.newBuilder().setLocation(location).setTemperature(20).build());
+        }
+        Thread.sleep(200);
+        cluster.nodes.get(2).close();
+
+        // Readings for the stopped owner must neither stall the stream nor be written to the dead forward stream
+        for (int i = 0; i < 50; i++) {
+            requests.onNext(WeatherData.newBuilder().setLocation(ownedByStopped.get(i % 5)).setTemperature(20).build());
+        }
+        requests.onCompleted();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(StatusRuntimeException.class, failure.getCause());
+    }
+
+    private void assertStoredOnOwnersOnly(int locations, long readingsPerLocation) throws Exception {
+        for (int c = 0; c < locations; c++) {
+            String location = "City-" + c + ", TR";
+            String owner = cluster.nodes.get(0).router.ownerOf(location).id();
+            for (LocalCluster.Node node : cluster.nodes) {
+                long readings = node.partitioner.query(location, state -> state.readingsReceived()).get(5, TimeUnit.SECONDS);
+                assertEquals(node.member.id().equals(owner) ? readingsPerLocation : 0, readings, location + " on " + node.member.id());
+            }
+        }
+    }
+
+    private ManagedChannel channelTo(int node) {
+        ManagedChannel channel = ManagedChannelBuilder
+                .forAddress("localhost", cluster.members.get(node).port())
+                .usePlaintext()
+                .build();
+        channels.add(channel);
+        return channel;
+    }
+
+    private static SubmitResponse submit(Channel channel, List<WeatherData> readings) throws Exception {
+        CompletableFuture<SubmitResponse> result = new CompletableFuture<>();
+        StreamObserver<WeatherData> requests = openSubmit(channel, result);
+        readings.forEach(requests::onNext);
+        requests.onCompleted();
+        return result.get(10, TimeUnit.SECONDS);
+    }
+
+    private static StreamObserver<WeatherData> openSubmit(Channel channel, CompletableFuture<SubmitResponse> result) {
+        return WeatherServiceGrpc.newStub(channel).submitWeatherData(new StreamObserver<>() {
+            @Override
+            public void onNext(SubmitResponse response) {
+                result.complete(response);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                result.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+    }
+}
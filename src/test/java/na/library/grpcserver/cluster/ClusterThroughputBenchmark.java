@@ -0,0 +1,84 @@
+package na.library.grpcserver.cluster;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.StatusRuntimeException;
+import na.library.grpcweather.proto.LocationRequest;
+import na.library.grpcweather.proto.WeatherServiceGrpc;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregate GetCurrentWeather throughput as nodes are added. Run with {@code mvn test -Pbenchmark}.
+ * Clients connect to random nodes, so about (N-1)/N of the calls are forwarded once - the numbers include that hop.
+ * All nodes share this machine, so expect the curve to follow available cores rather than node count.
+ */
+@Tag("benchmark")
+public class ClusterThroughputBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterThroughputBenchmark.class);
+    private static final int CLIENT_THREADS = 32;
+    private static final long DURATION_MILLIS = 5_000;
+
+    @Test
+    void aggregateThroughputByNodeCount() throws Exception {
+        for (int nodes : new int[]{1, 2, 3, 4}) {
+            try (LocalCluster cluster = new LocalCluster(nodes)) {
+                double callsPerSecond = run(cluster);
+                logger.info("nodes={} throughput={} calls/s", nodes, String.format("%,.0f", callsPerSecond));
+            }
+        }
+    }
+
+    private double run(LocalCluster cluster) throws InterruptedException {
+        List<ManagedChannel> channels = new ArrayList<>();
+        for (var member : cluster.members) {
+            channels.add(ManagedChannelBuilder.forAddress("localhost", member.port()).usePlaintext().build());
+        }
+
+        LongAdder calls = new LongAdder();
+        LongAdder failures = new LongAdder();
+        CountDownLatch done = new CountDownLatch(CLIENT_THREADS);
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        for (int t = 0; t < CLIENT_THREADS; t++) {
+            int client = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    var stub = WeatherServiceGrpc.newBlockingStub(channels.get(client % channels.size()));
+                    int i = 0;
+                    while (System.currentTimeMillis() < deadline) {
+                        try {
+                            stub.withDeadlineAfter(5, TimeUnit.SECONDS).getCurrentWeather(LocationRequest.newBuilder()
+                                    .setCity("City-" + (client * 7919 + i++) % 10_000)
+                                    .setCountry("TR")
+                                    .build());
+                            calls.increment();
+                        } catch (StatusRuntimeException e) {
+                            failures.increment();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.start();
+        }
+        done.await();
+
+        for (ManagedChannel channel : channels) {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+        if (failures.sum() > 0) {
+            logger.warn("{} calls failed and are not counted", failures.sum());
+        }
+        return calls.sum() * 1000.0 / DURATION_MILLIS;
+    }
+}
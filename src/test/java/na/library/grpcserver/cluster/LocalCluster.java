@@ -0,0 +1,62 @@
+package na.library.grpcserver.cluster;
+
+import na.library.grpcserver.TestWeatherServer;
+import na.library.grpcserver.config.ClusterProperties;
+import na.library.grpcserver.config.ClusterProperties.Member;
+import na.library.grpcserver.partition.LocationPartitioner;
+import na.library.grpcserver.provider.SyntheticWeatherDataProvider;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Several {@link TestWeatherServer} nodes on local ports sharing one member list.
+ */
+final class LocalCluster implements AutoCloseable {
+
+    final List<Member> members = new ArrayList<>();
+    final List<Node> nodes = new ArrayList<>();
+
+    LocalCluster(int size) throws IOException {
+        for (int i = 0; i < size; i++) {
+            members.add(new Member("node-" + i, "localhost", freePort()));
+        }
+        for (Member member : members) {
+            nodes.add(new Node(member, members));
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        for (Node node : nodes) {
+            node.close();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    static final class Node {
+        final Member member;
+        final ClusterRouter router;
+        final LocationPartitioner partitioner;
+        private final TestWeatherServer server;
+
+        Node(Member member, List<Member> members) throws IOException {
+            this.member = member;
+            this.server = new TestWeatherServer(new ClusterProperties(true, member.id(), members, 128, 2),
+                    member.port(), new SyntheticWeatherDataProvider(null));
+            this.router = server.router;
+            this.partitioner = server.partitioner;
+        }
+
+        void close() throws InterruptedException {
+            server.close();
+        }
+    }
+}
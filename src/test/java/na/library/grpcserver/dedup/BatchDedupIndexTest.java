@@ -0,0 +1,106 @@
+package na.library.grpcserver.dedup;
+
+import na.library.grpcserver.config.DedupProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchDedupIndexTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    private BatchDedupIndex index(int lruCapacity) {
+        DedupProperties properties = new DedupProperties(true, lruCapacity, 10_000, 0.0001,
+                Duration.ofMinutes(10), 6);
+        return new BatchDedupIndex(properties, clock::get);
+    }
+
+    // Checks the reading and, like the service, records it when it is accepted
+    private static boolean submit(BatchDedupIndex index, String batchId, long sequence) {
+        if (index.isDuplicate(batchId, sequence)) {
+            return false;
+        }
+        index.recordAccepted(batchId, sequence);
+        return true;
+    }
+
+    @Test
+    void retriedBatchIsDroppedAndResumedBatchContinues() {
+        BatchDedupIndex index = index(1000);
+
+        assertTrue(submit(index, "station-1/42", 0));
+        assertTrue(submit(index, "station-1/42", 1));
+
+        // Station retries from the start of the batch after the stream failed
+        assertFalse(submit(index, "station-1/42", 0));
+        assertFalse(submit(index, "station-1/42", 1));
+        assertTrue(submit(index, "station-1/42", 2));
+    }
+
+    @Test
+    void readingsThatWereNeverAcceptedAreNotDuplicates() {
+        BatchDedupIndex index = index(1000);
+
+        assertTrue(submit(index, "station-2/7", 0));
+        // Reading 1 arrived but the stream failed before it was stored
+        assertFalse(index.isDuplicate("station-2/7", 1));
+
+        // The retry skips reading 0 and stores reading 1
+        assertFalse(submit(index, "station-2/7", 0));
+        assertTrue(submit(index, "station-2/7", 1));
+    }
+
+    @Test
+    void readingsWithoutBatchIdAreNeverDeduplicated() {
+        BatchDedupIndex index = index(1000);
+
+        assertTrue(submit(index, "", 0));
+        assertTrue(submit(index, "", 0));
+    }
+
+    @Test
+    void batchEvictedFromLruIsStillRecognizedUntilBloomWindowExpires() {
+        BatchDedupIndex index = index(16);
+
+        assertTrue(submit(index, "old-batch", 0));
+        for (int i = 0; i < 1000; i++) {
+            submit(index, "filler-" + i, 0);
+        }
+        long dropsBefore = index.bloomOnlyDrops();
+        assertFalse(submit(index, "old-batch", 0));
+        assertEquals(dropsBefore + 1, index.bloomOnlyDrops());
+
+        // After every bucket has rotated out the batch is forgotten
+        clock.addAndGet(Duration.ofMinutes(70).toMillis());
+        assertTrue(submit(index, "old-batch", 0));
+    }
+
+    @Test
+    void batchEvictedWhileItsStreamIsStillSendingKeepsBeingAccepted() {
+        BatchDedupIndex index = index(16);
+
+        assertTrue(submit(index, "long-stream", 0));
+        assertTrue(submit(index, "long-stream", 1));
+        // Other stations push the batch out of the LRU while this stream is still open
+        for (int i = 0; i < 1000; i++) {
+            submit(index, "filler-" + i, 0);
+        }
+        for (int sequence = 2; sequence < 10; sequence++) {
+            assertTrue(submit(index, "long-stream", sequence), "reading " + sequence);
+        }
+
+        // A retry of the whole batch still drops everything that was accepted
+        for (int i = 0; i < 1000; i++) {
+            submit(index, "filler-again-" + i, 0);
+        }
+        for (int sequence = 0; sequence < 10; sequence++) {
+            assertFalse(submit(index, "long-stream", sequence), "reading " + sequence);
+        }
+        assertTrue(submit(index, "long-stream", 10));
+    }
+}
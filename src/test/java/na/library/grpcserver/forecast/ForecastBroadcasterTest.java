@@ -0,0 +1,101 @@
+package na.library.grpcserver.forecast;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import na.library.grpcserver.TestWeatherServer;
+import na.library.grpcserver.provider.SyntheticWeatherDataProvider;
+import na.library.grpcserver.provider.WeatherDataProvider;
+import na.library.grpcweather.proto.LocationRequest;
+import na.library.grpcweather.proto.WeatherResponse;
+import na.library.grpcweather.proto.WeatherServiceGrpc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ForecastBroadcasterTest {
+
+    // Generations started per location, counted when day 0 is generated
+    private final Map<String, AtomicInteger> generations = new ConcurrentHashMap<>();
+    private TestWeatherServer server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        WeatherDataProvider synthetic = new SyntheticWeatherDataProvider(null);
+        server = TestWeatherServer.standalone(new WeatherDataProvider() {
+            @Override
+            public WeatherResponse currentWeather(String location) {
+                return synthetic.currentWeather(location);
+            }
+
+            @Override
+            public WeatherResponse forecast(String location, int day) {
+                if (day == 0) {
+                    generations.computeIfAbsent(location, key -> new AtomicInteger()).incrementAndGet();
+                }
+                return synthetic.forecast(location, day);
+            }
+        });
+        channel = ManagedChannelBuilder.forAddress("localhost", server.port()).usePlaintext().build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.close();
+    }
+
+    @Test
+    void concurrentAndLateSubscribersShareOneGeneration() throws Exception {
+        // One thread per stream: each blocking forecast holds its thread for the whole broadcast
+        ExecutorService clients = Executors.newFixedThreadPool(5);
+        try {
+            List<CompletableFuture<List<WeatherResponse>>> streams = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                streams.add(CompletableFuture.supplyAsync(() -> forecast("Izmir"), clients));
+            }
+            // Joins after a few days were already sent and must get them replayed
+            Thread.sleep(3 * ForecastBroadcaster.UPDATE_INTERVAL_MILLIS - 200);
+            streams.add(CompletableFuture.supplyAsync(() -> forecast("Izmir"), clients));
+
+            List<WeatherResponse> first = streams.get(0).get(10, TimeUnit.SECONDS);
+            assertEquals(ForecastBroadcaster.FORECAST_DAYS, first.size());
+            for (CompletableFuture<List<WeatherResponse>> stream : streams) {
+                assertEquals(first, stream.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, generations.get("Izmir, Turkey").get());
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    void newRequestAfterBroadcastEndsStartsFreshGeneration() {
+        List<WeatherResponse> first = forecast("Bursa");
+        List<WeatherResponse> second = forecast("Bursa");
+
+        assertEquals(ForecastBroadcaster.FORECAST_DAYS, first.size());
+        assertEquals(ForecastBroadcaster.FORECAST_DAYS, second.size());
+        assertEquals(2, generations.get("Bursa, Turkey").get());
+    }
+
+    private List<WeatherResponse> forecast(String city) {
+        List<WeatherResponse> responses = new ArrayList<>();
+        WeatherServiceGrpc.newBlockingStub(channel)
+                .getWeatherForecast(LocationRequest.newBuilder().setCity(city).setCountry("Turkey").build())
+                .forEachRemaining(responses::add);
+        return responses;
+    }
+}
@@ -0,0 +1,87 @@
+package na.library.grpcserver.partition;
+
+import na.library.grpcserver.config.PartitionProperties;
+import na.library.grpcweather.proto.WeatherData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LocationPartitionerTest {
+
+    // Small ring so producers regularly hit the full-ring backpressure path
+    private final LocationPartitioner partitioner = new LocationPartitioner(new PartitionProperties(4, 8));
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        partitioner.shutdown();
+    }
+
+    @Test
+    void ringBufferIsFifoAndBounded() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, ring.poll());
+        }
+        assertNull(ring.poll());
+    }
+
+    @Test
+    void concurrentProducersAreAppliedByOwningPartition() throws Exception {
+        int producers = 8;
+        int readingsPerProducer = 10_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < readingsPerProducer; i++) {
+                    partitioner.recordReading(WeatherData.newBuilder().setLocation("City-" + (i % 10)).build());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long total = 0;
+        for (int c = 0; c < 10; c++) {
+            String location = "City-" + c;
+            int owner = partitioner.partitionOf(location);
+            String writer = partitioner.query(location, state -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+            assertEquals("weather-partition-" + owner, writer);
+            total += partitioner.query(location, LocationState::readingsReceived).get(5, TimeUnit.SECONDS);
+        }
+        assertEquals((long) producers * readingsPerProducer, total);
+    }
+
+    @Test
+    void tasksAreRejectedOncePartitionsAreStopped() throws Exception {
+        partitioner.recordReading(WeatherData.newBuilder().setLocation("City-1").build());
+        partitioner.shutdown();
+
+        assertThrows(RejectedExecutionException.class,
+                () -> partitioner.recordReading(WeatherData.newBuilder().setLocation("City-1").build()));
+        CompletableFuture<Long> readings = partitioner.query("City-1", LocationState::readingsReceived);
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> readings.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+    }
+}
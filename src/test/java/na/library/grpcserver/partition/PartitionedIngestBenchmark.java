@@ -0,0 +1,98 @@
+package na.library.grpcserver.partition;
+
+import na.library.grpcserver.config.PartitionProperties;
+import na.library.grpcweather.proto.WeatherData;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Ingest throughput with 1..16 partitions. Run with {@code mvn test -Pbenchmark}.
+ * Producers stand in for gRPC handler threads; each reading does a little aggregation work on its partition
+ * so the writers, not the ring, are the limiting factor. Scaling flattens once partitions exceed physical cores.
+ */
+@Tag("benchmark")
+public class PartitionedIngestBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedIngestBenchmark.class);
+    private static final int PRODUCERS = 16;
+    private static final int READINGS_PER_PRODUCER = 200_000;
+    private static final int LOCATIONS = 1_000;
+
+    @Test
+    void ingestThroughputByPartitionCount() throws Exception {
+        WeatherData[] readings = new WeatherData[LOCATIONS];
+        for (int i = 0; i < LOCATIONS; i++) {
+            readings[i] = WeatherData.newBuilder().setLocation("City-" + i).setTemperature(i).build();
+        }
+
+        run(2, readings); // warm-up
+        double baseline = 0;
+        for (int partitions : new int[]{1, 2, 4, 8, 16}) {
+            double opsPerSecond = run(partitions, readings);
+            if (partitions == 1) {
+                baseline = opsPerSecond;
+            }
+            logger.info("partitions={} throughput={} readings/s speedup={}x",
+                    partitions, String.format("%,.0f", opsPerSecond), String.format("%.2f", opsPerSecond / baseline));
+        }
+    }
+
+    private double run(int partitionCount, WeatherData[] readings) throws Exception {
+        LocationPartitioner partitioner = new LocationPartitioner(new PartitionProperties(partitionCount, 8192));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            int offset = p;
+            Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < READINGS_PER_PRODUCER; i++) {
+                    WeatherData reading = readings[(i + offset * 31) % LOCATIONS];
+                    partitioner.execute(reading.getLocation(), state -> {
+                        state.record(reading);
+                        if (simulateAggregation(reading) == Double.MIN_VALUE) {
+                            throw new IllegalStateException("unreachable - keeps the work from being optimized away");
+                        }
+                    });
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        // A query per partition completes only after everything queued before it
+        List<CompletableFuture<Long>> drained = new ArrayList<>();
+        for (int i = 0; i < LOCATIONS; i++) {
+            drained.add(partitioner.query("City-" + i, LocationState::readingsReceived));
+        }
+        CompletableFuture.allOf(drained.toArray(new CompletableFuture[0])).join();
+        long elapsed = System.nanoTime() - begin;
+
+        partitioner.shutdown();
+        return (double) PRODUCERS * READINGS_PER_PRODUCER / elapsed * 1_000_000_000L;
+    }
+
+    private static double simulateAggregation(WeatherData reading) {
+        double acc = reading.getTemperature();
+        for (int i = 0; i < 200; i++) {
+            acc = acc * 0.999 + Math.sqrt(i);
+        }
+        return acc;
+    }
+}
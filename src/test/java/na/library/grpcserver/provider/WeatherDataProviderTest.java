@@ -0,0 +1,108 @@
+package na.library.grpcserver.provider;
+
+import na.library.grpcweather.proto.WeatherResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WeatherDataProviderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void seededSyntheticProviderIsReproducible() {
+        WeatherResponse first = new SyntheticWeatherDataProvider(42L).forecast("Ankara, Turkey", 3);
+        WeatherResponse second = new SyntheticWeatherDataProvider(42L).forecast("Ankara, Turkey", 3);
+        WeatherResponse otherDay = new SyntheticWeatherDataProvider(42L).forecast("Ankara, Turkey", 4);
+
+        assertEquals(first.getTemperature(), second.getTemperature());
+        assertEquals(first.getDescription(), second.getDescription());
+        assertEquals(first.getWindSpeed(), second.getWindSpeed());
+        assertNotEquals(first.getTemperature(), otherDay.getTemperature());
+    }
+
+    @Test
+    void replayProviderStreamsRecordedReadings() throws Exception {
+        Path file = tempDir.resolve("readings.wxr");
+        Instant time = Instant.parse("2025-05-01T10:00:00Z");
+        try (ReplayFileWriter writer = new ReplayFileWriter(file)) {
+            writer.append("Izmir, Turkey", 21.5f, 60f, 12f, "Sunny", time);
+            writer.append("Izmir, Turkey", 19.0f, 75f, 20f, "Light Rain", time.plusSeconds(3600));
+            writer.append("Oslo, Norway", -3.0f, 80f, 8f, "Snowy", time);
+        }
+
+        ReplayWeatherDataProvider provider = new ReplayWeatherDataProvider(file);
+
+        assertEquals(21.5f, provider.currentWeather("Izmir, Turkey").getTemperature());
+        assertEquals("Light Rain", provider.currentWeather("Izmir, Turkey").getDescription());
+        assertEquals(21.5f, provider.currentWeather("Izmir, Turkey").getTemperature()); // wraps around
+        assertEquals(-3.0f, provider.forecast("Oslo, Norway", 0).getTemperature());
+        assertEquals(19.0f, provider.forecast("Izmir, Turkey", 1).getTemperature());
+
+        // Unknown locations are served from all recordings under the requested name
+        WeatherResponse unknown = provider.currentWeather("Lima, Peru");
+        assertEquals("Lima, Peru", unknown.getLocation());
+    }
+
+    @Test
+    void truncatedOrCorruptReplayFileIsRejected() throws Exception {
+        Path file = tempDir.resolve("readings.wxr");
+        try (ReplayFileWriter writer = new ReplayFileWriter(file)) {
+            writer.append("Izmir, Turkey", 21.5f, 60f, 12f, "Sunny", Instant.parse("2025-05-01T10:00:00Z"));
+        }
+        byte[] valid = Files.readAllBytes(file);
+
+        Path truncated = tempDir.resolve("truncated.wxr");
+        Files.write(truncated, Arrays.copyOf(valid, valid.length - 3));
+        assertThrows(IllegalArgumentException.class, () -> new ReplayWeatherDataProvider(truncated));
+
+        // Description index byte sits 8 bytes before the end of the record
+        byte[] badDescription = valid.clone();
+        badDescription[valid.length - 9] = (byte) 0x7F;
+        Path corrupt = tempDir.resolve("corrupt.wxr");
+        Files.write(corrupt, badDescription);
+        assertThrows(IllegalArgumentException.class, () -> new ReplayWeatherDataProvider(corrupt));
+    }
+
+    @Test
+    void cachingProviderReusesAnswersUntilTtlExpires() {
+        AtomicInteger loads = new AtomicInteger();
+        AtomicLong clock = new AtomicLong();
+        WeatherDataProvider counting = new WeatherDataProvider() {
+            @Override
+            public WeatherResponse currentWeather(String location) {
+                loads.incrementAndGet();
+                return WeatherResponse.newBuilder().setLocation(location).build();
+            }
+
+            @Override
+            public WeatherResponse forecast(String location, int day) {
+                loads.incrementAndGet();
+                return WeatherResponse.newBuilder().setLocation(location).build();
+            }
+        };
+        CachingWeatherDataProvider provider = new CachingWeatherDataProvider(counting, Duration.ofSeconds(30), 100, clock::get);
+
+        WeatherResponse first = provider.currentWeather("Paris, France");
+        assertSame(first, provider.currentWeather("Paris, France"));
+        provider.forecast("Paris, France", 1);
+        assertEquals(2, loads.get());
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        provider.currentWeather("Paris, France");
+        assertEquals(3, loads.get());
+    }
+}
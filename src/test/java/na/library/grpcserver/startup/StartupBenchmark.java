@@ -0,0 +1,99 @@
+package na.library.grpcserver.startup;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.StatusRuntimeException;
+import na.library.grpcweather.proto.LocationRequest;
+import na.library.grpcweather.proto.WeatherServiceGrpc;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Time from process launch to the first successful GetCurrentWeather, per startup configuration.
+ * Needs the jars from {@code mvn -Paot-cds package -DskipTests}, then run with
+ * {@code mvn test -Pbenchmark -Dtest=StartupBenchmark}.
+ */
+@Tag("benchmark")
+public class StartupBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupBenchmark.class);
+    private static final String JAR_NAME = "grpc-server-starter-0.0.1-SNAPSHOT.jar";
+    private static final Path FAT_JAR = Path.of("target", JAR_NAME);
+    private static final Path EXTRACTED_JAR = Path.of("target", "application", JAR_NAME);
+    private static final Path CDS_ARCHIVE = Path.of("target", "application", "application.jsa");
+    private static final int RUNS = 3;
+
+    @Test
+    void timeToFirstGetCurrentWeather() throws Exception {
+        assumeTrue(Files.exists(FAT_JAR) && Files.exists(CDS_ARCHIVE), "build with -Paot-cds first");
+
+        measure("jvm (default)", List.of("-jar", FAT_JAR.toString()));
+        measure("jvm + fast-start", List.of("-jar", FAT_JAR.toString(), "--spring.profiles.active=fast-start"));
+        measure("aot + fast-start", List.of("-Dspring.aot.enabled=true",
+                "-jar", FAT_JAR.toString(), "--spring.profiles.active=fast-start"));
+        measure("aot + cds + fast-start", List.of("-XX:SharedArchiveFile=" + CDS_ARCHIVE, "-Dspring.aot.enabled=true",
+                "-jar", EXTRACTED_JAR.toString(), "--spring.profiles.active=fast-start"));
+    }
+
+    private void measure(String configuration, List<String> javaArgs) throws Exception {
+        long total = 0;
+        for (int run = 0; run < RUNS; run++) {
+            total += launchAndTime(javaArgs);
+        }
+        logger.info("{}: time to first GetCurrentWeather = {} ms (avg of {})", configuration, total / RUNS, RUNS);
+    }
+
+    private long launchAndTime(List<String> javaArgs) throws Exception {
+        int grpcPort = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(javaArgs);
+        command.add("--grpc.server.port=" + grpcPort);
+        command.add("--server.port=0");
+
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", grpcPort).usePlaintext().build();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            var stub = WeatherServiceGrpc.newBlockingStub(channel);
+            LocationRequest request = LocationRequest.newBuilder().setCity("Ankara").setCountry("Turkey").build();
+            while (true) {
+                try {
+                    stub.withDeadlineAfter(1, TimeUnit.SECONDS).getCurrentWeather(request);
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                } catch (StatusRuntimeException notReadyYet) {
+                    if (!process.isAlive()) {
+                        throw new IllegalStateException("Server exited with " + process.exitValue() + ": " + command);
+                    }
+                    Thread.sleep(5);
+                    channel.resetConnectBackoff();
+                }
+            }
+        } finally {
+            process.destroy();
+            process.waitFor(10, TimeUnit.SECONDS);
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}